@@ -0,0 +1,49 @@
+package benchmarks;
+
+import chess.ChessBoard;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Board setup, equality and hashing on {@link ChessBoard}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChessBoardBenchmark {
+
+    @Param({"OPENING", "MIDDLEGAME", "ENDGAME"})
+    public Positions position;
+
+    private ChessBoard board;
+    private ChessBoard equalBoard;
+    private ChessBoard scratch;
+
+    @Setup
+    public void setUp() {
+        board = position.create().getBoard();
+        // a separately built board, so equals cannot short-circuit on identity
+        equalBoard = position.create().getBoard();
+        scratch = new ChessBoard();
+    }
+
+    @Benchmark
+    public ChessBoard resetBoard() {
+        scratch.resetBoard();
+        return scratch;
+    }
+
+    @Benchmark
+    public boolean equalBoards() {
+        return board.equals(equalBoard);
+    }
+
+    @Benchmark
+    public int hashCodeOf() {
+        return board.hashCode();
+    }
+}
@@ -0,0 +1,93 @@
+package benchmarks;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Move generation and game-status queries on {@link ChessGame}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChessGameBenchmark {
+
+    @Param({"OPENING", "MIDDLEGAME", "ENDGAME"})
+    public Positions position;
+
+    private ChessGame game;
+    private ChessPosition[] ownPieces;
+    private ChessMove firstMove;
+
+    @Setup
+    public void setUp() {
+        game = position.create();
+        var squares = new ArrayList<ChessPosition>();
+        for (int row = 1; row <= 8; row++) {
+            for (int col = 1; col <= 8; col++) {
+                ChessPosition square = new ChessPosition(row, col);
+                ChessPiece piece = game.getBoard().getPiece(square);
+                if (piece != null && piece.getTeamColor() == game.getTeamTurn()) {
+                    squares.add(square);
+                }
+            }
+        }
+        ownPieces = squares.toArray(new ChessPosition[0]);
+        for (ChessPosition square : ownPieces) {
+            var moves = game.validMoves(square);
+            if (!moves.isEmpty()) {
+                firstMove = moves.iterator().next();
+                break;
+            }
+        }
+    }
+
+    /** validMoves for every piece of the side to move. */
+    @Benchmark
+    public void validMoves(Blackhole blackhole) {
+        for (ChessPosition square : ownPieces) {
+            blackhole.consume(game.validMoves(square));
+        }
+    }
+
+    @Benchmark
+    public boolean isInCheckmate() {
+        return game.isInCheckmate(game.getTeamTurn());
+    }
+
+    @Benchmark
+    public boolean isInStalemate() {
+        return game.isInStalemate(game.getTeamTurn());
+    }
+
+    /**
+     * makeMove on a fresh copy of the position. The copy is made in an
+     * invocation-level setup so it is not timed; makeMove runs validMoves, so the
+     * per-invocation harness cost is small next to the measured work.
+     */
+    @Benchmark
+    public ChessGame makeMove(MoveState state) throws InvalidMoveException {
+        state.copy.makeMove(firstMove);
+        return state.copy;
+    }
+
+    @State(Scope.Thread)
+    public static class MoveState {
+        ChessGame copy;
+
+        @Setup(Level.Invocation)
+        public void copy(ChessGameBenchmark benchmark) {
+            copy = new ChessGame(benchmark.game);
+        }
+    }
+}
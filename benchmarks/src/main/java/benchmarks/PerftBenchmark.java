@@ -0,0 +1,40 @@
+package benchmarks;
+
+import chess.ChessGame;
+import chess.Perft;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link Perft} node counts from the starting position. Divide the node count for the
+ * depth by the reported time per operation to get nodes per second.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PerftBenchmark {
+
+    @Param({"4"})
+    public int depth;
+
+    private ChessGame game;
+
+    @Setup
+    public void setUp() {
+        game = new ChessGame();
+    }
+
+    @Benchmark
+    public long serial() {
+        return Perft.perft(game, depth);
+    }
+
+    @Benchmark
+    public long parallel() {
+        return Perft.perftParallel(game, depth);
+    }
+}
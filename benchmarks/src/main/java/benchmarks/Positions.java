@@ -0,0 +1,51 @@
+package benchmarks;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
+
+/**
+ * Fixed positions the benchmarks run against. Opening and middlegame positions are
+ * reached by playing a move sequence through {@link ChessGame#makeMove}, so they are
+ * always legal; the endgame is read from FEN.
+ */
+public enum Positions {
+    /** Ruy Lopez after 3...a6, white to move. */
+    OPENING("e2e4 e7e5 g1f3 b8c6 f1b5 a7a6"),
+    /** Quiet Italian structure with all minor pieces developed, white to move. */
+    MIDDLEGAME("e2e4 e7e5 g1f3 b8c6 f1c4 f8c5 c2c3 g8f6 d2d3 d7d6 b1d2 a7a6 c4b3 c5a7 h2h3 h7h6 "
+            + "d2f1 c8e6 f1g3 d8d7"),
+    /** Rook and pawns against rook and pawns, white to move. */
+    ENDGAME(null) {
+        @Override
+        public ChessGame create() {
+            return ChessGame.fromFen("5k2/3R1p2/6p1/p6p/P6P/6P1/r4PK1/8 w - - 0 40");
+        }
+    };
+
+    private final String moves;
+
+    Positions(String moves) {
+        this.moves = moves;
+    }
+
+    /**
+     * @return a new game set to this position
+     */
+    public ChessGame create() {
+        ChessGame game = new ChessGame();
+        for (String move : moves.split(" ")) {
+            try {
+                game.makeMove(new ChessMove(square(move.substring(0, 2)), square(move.substring(2, 4)), null));
+            } catch (InvalidMoveException e) {
+                throw new IllegalStateException("Bad setup move " + move + " for " + name(), e);
+            }
+        }
+        return game;
+    }
+
+    static ChessPosition square(String name) {
+        return new ChessPosition(name.charAt(1) - '0', name.charAt(0) - 'a' + 1);
+    }
+}
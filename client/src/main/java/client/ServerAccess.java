@@ -6,11 +6,15 @@ import java.io.*;
 import java.net.HttpURLConnection;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 
 public class ServerAccess {
     private final String baseUrl;
     private String authToken;
+    private Map<String,String> listFilters = Map.of();
+    private String nextCursor;
 
     public ServerAccess(String baseUrl) {
         this.baseUrl = baseUrl;
@@ -59,7 +63,42 @@ public class ServerAccess {
     }
 
     public List<Map<String,Object>> listGames() {
-        var resp = doCall("GET","/game",null);
+        return listGames(Map.of());
+    }
+
+    /**
+     * Fetches the first page of games
+     *
+     * @param filters query parameters for GET /game, such as open=true, mine=true or prefix
+     */
+    public List<Map<String,Object>> listGames(Map<String,String> filters) {
+        listFilters = filters;
+        nextCursor = null;
+        return fetchGamePage(filters);
+    }
+
+    /**
+     * Fetches the page after the last one returned, with the same filters
+     */
+    public List<Map<String,Object>> nextGames() {
+        if (nextCursor == null) {
+            return List.of();
+        }
+        var params = new LinkedHashMap<>(listFilters);
+        params.put("cursor", nextCursor);
+        return fetchGamePage(params);
+    }
+
+    public boolean hasMoreGames() {
+        return nextCursor != null;
+    }
+
+    private List<Map<String,Object>> fetchGamePage(Map<String,String> params) {
+        StringJoiner query = new StringJoiner("&", "?", "").setEmptyValue("");
+        params.forEach((k, v) -> query.add(URLEncoder.encode(k, StandardCharsets.UTF_8) + "="
+                + URLEncoder.encode(v, StandardCharsets.UTF_8)));
+        var resp = doCall("GET","/game" + query, null);
+        nextCursor = (resp.get("nextCursor") instanceof Double d) ? String.valueOf(d.intValue()) : null;
         if (resp.containsKey("games")) {
             Object raw = resp.get("games");
             if (raw instanceof List<?> list) {
@@ -77,6 +116,10 @@ public class ServerAccess {
         return List.of();
     }
 
+    public Map<String,Object> getGame(int gameID) {
+        return doCall("GET", "/game/" + gameID, null);
+    }
+
     public boolean joinGame(int gameID, String color) {
         Map<String,Object> body = new HashMap<>();
         body.put("gameID",(double)gameID);
@@ -102,9 +102,11 @@ public class ConsoleUI {
                 state = State.PRELOGIN;
             }
             case "create" -> doCreate(tokens);
-            case "list" -> doList();
+            case "list" -> doList(tokens);
+            case "more" -> doMore();
             case "join" -> doJoin(line);
             case "observe" -> doObserve(line);
+            case "show" -> doShow(line);
             default -> System.out.println("Unknown postlogin command. Type 'help' or 'quit'.");
         }
     }
@@ -113,9 +115,13 @@ public class ConsoleUI {
         System.out.println("""
             Postlogin commands:
               create <NAME>           (create a new game)
-              list                    (list all games)
+              list [open] [mine] [PREFIX]
+                                      (list games, optionally only open seats,
+                                       your own games, or names starting with PREFIX)
+              more                    (show the next page of games)
               join <INDEX> <COLOR>    (join a game as WHITE or BLACK)
               observe <INDEX>         (observe a game from the White perspective)
+              show <INDEX>            (show a game's players, turn and move number)
               logout
               quit
               help
@@ -136,14 +142,39 @@ public class ConsoleUI {
         }
     }
 
-    private void doList() {
-        cachedGames = server.listGames();
+    private void doList(String[] tokens) {
+        Map<String,String> filters = new LinkedHashMap<>();
+        if (tokens.length > 1) {
+            for (String word : tokens[1].split("\\s+")) {
+                switch (word.toLowerCase()) {
+                    case "open" -> filters.put("open", "true");
+                    case "mine" -> filters.put("mine", "true");
+                    default -> filters.put("prefix", word);
+                }
+            }
+        }
+        cachedGames = new ArrayList<>(server.listGames(filters));
         if (cachedGames.isEmpty()) {
             System.out.println("No games found or unauthorized. Did you login?");
             return;
         }
         System.out.println("Games:");
-        for (int i=0; i< cachedGames.size(); i++) {
+        printGames(0);
+    }
+
+    private void doMore() {
+        if (!server.hasMoreGames()) {
+            System.out.println("No more games. Use 'list' to start over.");
+            return;
+        }
+        int first = cachedGames.size();
+        cachedGames.addAll(server.nextGames());
+        printGames(first);
+    }
+
+    // numbering continues across pages so join/observe indexes stay valid
+    private void printGames(int from) {
+        for (int i = from; i < cachedGames.size(); i++) {
             Map<String,Object> g = cachedGames.get(i);
             double d = (double) g.get("gameID");
             int gameID = (int)d;
@@ -152,6 +183,9 @@ public class ConsoleUI {
             String b = (String) g.getOrDefault("blackUsername","(open)");
             System.out.printf("%2d) name: %s, white: %s, black: %s%n", i+1, name, w, b);
         }
+        if (server.hasMoreGames()) {
+            System.out.println("Type 'more' for the next page.");
+        }
     }
     private boolean isValidIndex(int idx) {
         return idx >= 1 && idx <= cachedGames.size();
@@ -238,4 +272,48 @@ public class ConsoleUI {
         System.out.println("Observing game from the White perspective:");
         new Board().drawChessBoard(false);
     }
+
+    private void doShow(String line) {
+        String[] parts = line.split("\\s+");
+        if (parts.length < 2) {
+            System.out.println("Usage: show <LIST_INDEX>");
+            return;
+        }
+
+        int idx;
+        try {
+            idx = Integer.parseInt(parts[1]);
+        } catch (NumberFormatException e) {
+            System.out.println("Error: Invalid index format");
+            return;
+        }
+
+        if (!isValidIndex(idx)) {
+            System.out.println("Error: Index out of range. Type 'list' to see valid games.");
+            return;
+        }
+
+        Object gameIDObj = cachedGames.get(idx - 1).get("gameID");
+        if (!(gameIDObj instanceof Number number)) {
+            System.out.println("Error: Invalid game ID");
+            return;
+        }
+
+        // the list only has names; the detail route has the current state
+        Map<String, Object> detail = server.getGame(number.intValue());
+        if (detail.containsKey("Error")) {
+            System.out.println("Failed to load game. It might not exist.");
+            return;
+        }
+        Map<?, ?> state = detail.get("game") instanceof Map<?, ?> m ? m : Map.of();
+        Object turn = state.get("currentTurn");
+        Object moveNumber = state.get("fullmoveNumber");
+
+        System.out.println("Game: " + detail.getOrDefault("gameName", "(no name)"));
+        System.out.println("  white: " + detail.getOrDefault("whiteUsername", "(open)"));
+        System.out.println("  black: " + detail.getOrDefault("blackUsername", "(open)"));
+        if (turn != null && moveNumber instanceof Number n) {
+            System.out.println("  move " + n.intValue() + ", " + turn + " to play");
+        }
+    }
 }
@@ -10,6 +10,11 @@ import java.sql.SQLException;
 
 public class AuthDAOSQL implements AuthDAO {
 
+    private static final String INSERT_SQL = "INSERT INTO auth_table (authToken, username) VALUES (?, ?)";
+    private static final String DELETE_SQL = "DELETE FROM auth_table WHERE authToken=?";
+    private static final String SELECT_SQL = "SELECT username FROM auth_table WHERE authToken = ?";
+    private static final String TRUNCATE_SQL = "TRUNCATE auth_table";
+
     public AuthDAOSQL() {
         try {
             DatabaseManager.createDatabase();
@@ -36,9 +41,8 @@ public class AuthDAOSQL implements AuthDAO {
 
     @Override
     public void createAuth(AuthData authData) throws DataAccessException {
-        String sql = "INSERT INTO auth_table (authToken, username) VALUES (?, ?)";
         try (Connection conn = DatabaseManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = conn.prepareStatement(INSERT_SQL)) {
 
             stmt.setString(1, authData.authToken());
             stmt.setString(2, authData.username());
@@ -55,9 +59,8 @@ public class AuthDAOSQL implements AuthDAO {
 
     @Override
     public void deleteAuth(String authToken) throws DataAccessException {
-        String sql = "DELETE FROM auth_table WHERE authToken=?";
         try (Connection conn = DatabaseManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = conn.prepareStatement(DELETE_SQL)) {
 
             stmt.setString(1, authToken);
             int rowsAffected = stmt.executeUpdate();
@@ -71,9 +74,8 @@ public class AuthDAOSQL implements AuthDAO {
 
     @Override
     public AuthData getAuth(String authToken) throws DataAccessException {
-        String sql = "SELECT username FROM auth_table WHERE authToken = ?";
         try (Connection conn = DatabaseManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = conn.prepareStatement(SELECT_SQL)) {
 
             stmt.setString(1, authToken);
             try (ResultSet rs = stmt.executeQuery()) {
@@ -90,9 +92,8 @@ public class AuthDAOSQL implements AuthDAO {
 
     @Override
     public void clear() {
-        String sql = "TRUNCATE auth_table";
         try (Connection conn = DatabaseManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = conn.prepareStatement(TRUNCATE_SQL)) {
             stmt.executeUpdate();
         } catch (SQLException | DataAccessException e) {
         }
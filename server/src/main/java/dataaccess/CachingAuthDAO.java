@@ -0,0 +1,176 @@
+package dataaccess;
+
+import model.AuthData;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps recently used auth tokens in memory in front of another {@link AuthDAO}, so
+ * repeated lookups of the same token skip the database.
+ * <p>
+ * Entries expire a fixed time after they are cached. When the cache is full the oldest
+ * entry is dropped, which with a fixed time-to-live is also the one closest to expiring.
+ * Deleting a token removes it from the cache at once. Lookups of unknown tokens are not
+ * cached, so a miss always reaches the delegate. A token loaded while any delete or clear
+ * was in progress is returned but not cached, so a logout cannot be undone by a lookup
+ * that read the token just before it was deleted.
+ */
+public class CachingAuthDAO implements AuthDAO {
+
+    public static final Duration DEFAULT_TTL = Duration.ofMinutes(5);
+    public static final int DEFAULT_MAX_ENTRIES = 10_000;
+
+    private record Entry(String token, AuthData auth, long expiresAtMillis) {
+    }
+
+    /**
+     * Cache counters at one moment.
+     *
+     * @param hits      lookups answered from the cache
+     * @param misses    lookups passed to the delegate
+     * @param evictions entries dropped because they expired or the cache was full
+     * @param size      entries currently cached
+     */
+    public record CacheStats(long hits, long misses, long evictions, int size) {
+    }
+
+    private final AuthDAO delegate;
+    private final long ttlMillis;
+    private final int maxEntries;
+    private final Clock clock;
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    // every cached entry in insertion order; entries already removed from the map are skipped when polled
+    private final Queue<Entry> insertionOrder = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    // bumped before and after every delete and clear; a load that saw another value is not cached
+    private final AtomicLong deletions = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public CachingAuthDAO(AuthDAO delegate) {
+        this(delegate, DEFAULT_TTL, DEFAULT_MAX_ENTRIES, Clock.systemUTC());
+    }
+
+    /**
+     * @param delegate   where tokens are stored
+     * @param ttl        how long a token stays cached after it is loaded
+     * @param maxEntries most tokens cached at once
+     * @param clock      time source for expiry
+     */
+    public CachingAuthDAO(AuthDAO delegate, Duration ttl, int maxEntries, Clock clock) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("Cache must hold at least one entry: " + maxEntries);
+        }
+        this.delegate = delegate;
+        this.ttlMillis = ttl.toMillis();
+        this.maxEntries = maxEntries;
+        this.clock = clock;
+    }
+
+    @Override
+    public void createAuth(AuthData auth) throws DataAccessException {
+        long generation = deletions.get();
+        delegate.createAuth(auth);
+        cache(auth, generation);
+    }
+
+    @Override
+    public AuthData getAuth(String authToken) throws DataAccessException {
+        Entry entry = entries.get(authToken);
+        if (entry != null) {
+            if (entry.expiresAtMillis() > clock.millis()) {
+                hits.increment();
+                return entry.auth();
+            }
+            if (entries.remove(authToken, entry)) {
+                evictions.increment();
+            }
+        }
+        misses.increment();
+        long generation = deletions.get();
+        AuthData auth = delegate.getAuth(authToken);
+        if (auth != null) {
+            cache(auth, generation);
+        }
+        return auth;
+    }
+
+    @Override
+    public void deleteAuth(String authToken) throws DataAccessException {
+        deletions.incrementAndGet();
+        entries.remove(authToken);
+        try {
+            delegate.deleteAuth(authToken);
+        } finally {
+            // any lookup that read the token before the delete committed now sees a new generation
+            deletions.incrementAndGet();
+            entries.remove(authToken);
+        }
+    }
+
+    @Override
+    public void clear() throws DataAccessException {
+        deletions.incrementAndGet();
+        entries.clear();
+        try {
+            delegate.clear();
+        } finally {
+            deletions.incrementAndGet();
+            entries.clear();
+        }
+    }
+
+    /**
+     * @return current hit, miss and eviction counts
+     */
+    public CacheStats stats() {
+        return new CacheStats(hits.sum(), misses.sum(), evictions.sum(), entries.size());
+    }
+
+    /*
+     * Caches a token loaded when the deletion counter read generation. The check runs
+     * inside compute, so it is atomic with deleteAuth's remove of the same token: either
+     * the delete's first bump is seen here, or its later remove drops this entry.
+     */
+    private void cache(AuthData auth, long generation) {
+        Entry entry = new Entry(auth.authToken(), auth, clock.millis() + ttlMillis);
+        boolean[] cached = new boolean[1];
+        entries.compute(entry.token(), (token, current) -> {
+            if (deletions.get() != generation) {
+                return current;
+            }
+            cached[0] = true;
+            return entry;
+        });
+        if (!cached[0]) {
+            return;
+        }
+        insertionOrder.add(entry);
+        if (queued.incrementAndGet() > maxEntries) {
+            evictOldest();
+        }
+    }
+
+    private void evictOldest() {
+        while (queued.get() > maxEntries) {
+            Entry oldest = insertionOrder.poll();
+            if (oldest == null) {
+                return;
+            }
+            queued.decrementAndGet();
+            if (entries.remove(oldest.token(), oldest)) {
+                evictions.increment();
+            }
+        }
+    }
+}
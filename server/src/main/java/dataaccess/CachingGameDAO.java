@@ -0,0 +1,370 @@
+package dataaccess;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import model.GameData;
+import model.GameSummary;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Keeps games that are being played in memory in front of another {@link GameDAO}, and
+ * writes their moves behind.
+ * <p>
+ * {@link #recordMove} only updates the resident game and queues the move. A background
+ * thread flushes each game's queued moves to the delegate as one
+ * {@link GameDAO#recordMoves} call at least every {@code maxStaleness}, so a burst of
+ * moves costs one write. {@link #updateGame} is written through at once, after the
+ * game's queued moves. {@link #updatePlayers} is written through as well, and changes only
+ * the seats of the resident game, so a join never puts back a board that moves have
+ * since changed. Seat changes are durable when they return. {@link #close} flushes
+ * everything.
+ * <p>
+ * Callers get their own copy of a resident game from {@link #getGame}, and hand over
+ * the {@link GameData} they pass to {@code recordMove} or {@code updateGame}. Games
+ * with nothing queued are dropped from memory after {@code idleTimeout}.
+ */
+public class CachingGameDAO implements GameDAO, AutoCloseable {
+
+    public static final Duration DEFAULT_MAX_STALENESS = Duration.ofMillis(500);
+    public static final Duration DEFAULT_IDLE_TIMEOUT = Duration.ofMinutes(10);
+
+    private static final class Slot {
+        // guarded by the slot's monitor
+        GameData game;
+        final List<ChessMove> pendingMoves = new ArrayList<>();
+        long lastUsedNanos;
+        boolean evicted;
+
+        // held while this game's queued moves are written, so batches reach the delegate in order
+        final ReentrantLock flushLock = new ReentrantLock();
+
+        Slot(GameData game) {
+            this.game = game;
+            this.lastUsedNanos = System.nanoTime();
+        }
+    }
+
+    private final GameDAO delegate;
+    private final long idleTimeoutNanos;
+    private final ConcurrentHashMap<Integer, Slot> slots = new ConcurrentHashMap<>();
+    private final Set<Integer> dirty = ConcurrentHashMap.newKeySet();
+    // flushes hold the read lock; clear takes the write lock so no flush lands after a truncate
+    private final ReentrantReadWriteLock clearLock = new ReentrantReadWriteLock();
+    private final ScheduledExecutorService flusher;
+
+    public CachingGameDAO(GameDAO delegate) {
+        this(delegate, DEFAULT_MAX_STALENESS, DEFAULT_IDLE_TIMEOUT);
+    }
+
+    /**
+     * @param delegate     where games are stored
+     * @param maxStaleness longest a recorded move waits before it is written
+     * @param idleTimeout  how long an unused game with nothing queued stays in memory
+     */
+    public CachingGameDAO(GameDAO delegate, Duration maxStaleness, Duration idleTimeout) {
+        this.delegate = delegate;
+        this.idleTimeoutNanos = idleTimeout.toNanos();
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "game-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = maxStaleness.toMillis();
+        flusher.scheduleWithFixedDelay(this::flushInBackground, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public int allocateGameID() throws DataAccessException {
+        return delegate.allocateGameID();
+    }
+
+    @Override
+    public void createGame(GameData game) throws DataAccessException {
+        delegate.createGame(game);
+        slots.put(game.gameID(), new Slot(game));
+    }
+
+    @Override
+    public GameData getGame(int gameID) throws DataAccessException {
+        Slot slot = residentSlot(gameID);
+        synchronized (slot) {
+            slot.lastUsedNanos = System.nanoTime();
+            return copyOf(slot.game);
+        }
+    }
+
+    @Override
+    public Collection<GameData> listGames() throws DataAccessException {
+        Map<Integer, GameData> games = new LinkedHashMap<>();
+        for (GameData game : delegate.listGames()) {
+            games.put(game.gameID(), game);
+        }
+        // resident games may be ahead of what has been written
+        for (Slot slot : slots.values()) {
+            synchronized (slot) {
+                if (!slot.evicted) {
+                    games.replace(slot.game.gameID(), copyOf(slot.game));
+                }
+            }
+        }
+        return games.values();
+    }
+
+    // names only change through updateGame, which is written through, so the delegate is current
+    @Override
+    public Collection<GameSummary> listGameSummaries() throws DataAccessException {
+        return delegate.listGameSummaries();
+    }
+
+    @Override
+    public List<GameSummary> listGameSummaries(GameQuery query) throws DataAccessException {
+        return delegate.listGameSummaries(query);
+    }
+
+    @Override
+    public void updateGame(GameData game) throws DataAccessException {
+        clearLock.readLock().lock();
+        try {
+            Slot slot = slots.get(game.gameID());
+            if (slot == null) {
+                delegate.updateGame(game);
+                return;
+            }
+            slot.flushLock.lock();
+            try {
+                flush(slot);
+                delegate.updateGame(game);
+                synchronized (slot) {
+                    slot.game = game;
+                    slot.lastUsedNanos = System.nanoTime();
+                }
+            } finally {
+                slot.flushLock.unlock();
+            }
+        } finally {
+            clearLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean updatePlayers(int gameID, String expectedWhite, String expectedBlack,
+                                 String whiteUsername, String blackUsername) throws DataAccessException {
+        clearLock.readLock().lock();
+        try {
+            while (true) {
+                Slot slot = residentSlot(gameID);
+                // the flush lock keeps the slot's seats in step with the delegate's
+                slot.flushLock.lock();
+                try {
+                    synchronized (slot) {
+                        if (slot.evicted) {
+                            continue;
+                        }
+                    }
+                    if (!delegate.updatePlayers(gameID, expectedWhite, expectedBlack, whiteUsername, blackUsername)) {
+                        return false;
+                    }
+                    synchronized (slot) {
+                        GameData game = slot.game;
+                        slot.game = new GameData(gameID, whiteUsername, blackUsername, game.gameName(), game.game());
+                        slot.lastUsedNanos = System.nanoTime();
+                    }
+                    return true;
+                } finally {
+                    slot.flushLock.unlock();
+                }
+            }
+        } finally {
+            clearLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Takes the board from {@code game}; the seats stay as they are in memory, since they
+     * only change through {@link #updateGame} and {@link #updatePlayers}.
+     */
+    @Override
+    public void recordMove(GameData game, ChessMove move) throws DataAccessException {
+        recordMoves(game, List.of(move));
+    }
+
+    @Override
+    public void recordMoves(GameData game, List<ChessMove> moves) throws DataAccessException {
+        while (true) {
+            Slot slot = slots.computeIfAbsent(game.gameID(), id -> new Slot(game));
+            synchronized (slot) {
+                if (slot.evicted) {
+                    continue;
+                }
+                GameData current = slot.game;
+                slot.game = new GameData(game.gameID(), current.whiteUsername(), current.blackUsername(),
+                        current.gameName(), game.game());
+                slot.pendingMoves.addAll(moves);
+                slot.lastUsedNanos = System.nanoTime();
+            }
+            dirty.add(game.gameID());
+            return;
+        }
+    }
+
+    @Override
+    public void clear() throws DataAccessException {
+        clearLock.writeLock().lock();
+        try {
+            for (Slot slot : slots.values()) {
+                synchronized (slot) {
+                    slot.evicted = true;
+                    slot.pendingMoves.clear();
+                }
+            }
+            slots.clear();
+            dirty.clear();
+            delegate.clear();
+        } finally {
+            clearLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Writes every queued move now.
+     *
+     * @throws DataAccessException if a game could not be written; its moves stay queued
+     */
+    public void flush() throws DataAccessException {
+        DataAccessException failure = null;
+        for (Integer gameID : List.copyOf(dirty)) {
+            try {
+                flush(gameID);
+            } catch (DataAccessException e) {
+                failure = e;
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Stops the background writer and writes every queued move.
+     */
+    @Override
+    public void close() throws DataAccessException {
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+
+    /**
+     * @return number of games currently held in memory
+     */
+    public int residentGames() {
+        return slots.size();
+    }
+
+    private Slot residentSlot(int gameID) throws DataAccessException {
+        Slot slot = slots.get(gameID);
+        if (slot == null) {
+            Slot loaded = new Slot(delegate.getGame(gameID));
+            slot = slots.putIfAbsent(gameID, loaded);
+            if (slot == null) {
+                slot = loaded;
+            }
+        }
+        return slot;
+    }
+
+    private void flushInBackground() {
+        try {
+            flush();
+        } catch (DataAccessException e) {
+            System.err.println("Write-behind flush failed, will retry: " + e.getMessage());
+        }
+        evictIdle();
+    }
+
+    private void flush(int gameID) throws DataAccessException {
+        dirty.remove(gameID);
+        Slot slot = slots.get(gameID);
+        if (slot == null) {
+            return;
+        }
+        clearLock.readLock().lock();
+        slot.flushLock.lock();
+        try {
+            flush(slot);
+        } finally {
+            slot.flushLock.unlock();
+            clearLock.readLock().unlock();
+        }
+    }
+
+    // caller holds slot.flushLock
+    private void flush(Slot slot) throws DataAccessException {
+        GameData game;
+        List<ChessMove> moves;
+        synchronized (slot) {
+            if (slot.pendingMoves.isEmpty()) {
+                return;
+            }
+            game = slot.game;
+            moves = List.copyOf(slot.pendingMoves);
+            slot.pendingMoves.clear();
+        }
+        try {
+            // game is already past every move in the batch, which is what recordMoves expects
+            delegate.recordMoves(game, moves);
+        } catch (DataAccessException e) {
+            synchronized (slot) {
+                if (!slot.evicted) {
+                    slot.pendingMoves.addAll(0, moves);
+                    dirty.add(game.gameID());
+                }
+            }
+            throw e;
+        }
+    }
+
+    private void evictIdle() {
+        long now = System.nanoTime();
+        for (Map.Entry<Integer, Slot> entry : slots.entrySet()) {
+            Slot slot = entry.getValue();
+            // a game being written may still get its batch put back, so it stays
+            if (!slot.flushLock.tryLock()) {
+                continue;
+            }
+            try {
+                synchronized (slot) {
+                    if (slot.pendingMoves.isEmpty() && now - slot.lastUsedNanos > idleTimeoutNanos) {
+                        slot.evicted = true;
+                        slots.remove(entry.getKey(), slot);
+                    }
+                }
+            } finally {
+                slot.flushLock.unlock();
+            }
+        }
+    }
+
+    private static GameData copyOf(GameData game) {
+        ChessGame chessGame = game.game();
+        return new GameData(game.gameID(), game.whiteUsername(), game.blackUsername(), game.gameName(),
+                chessGame == null ? null : new ChessGame(chessGame));
+    }
+}
@@ -1,13 +1,47 @@
 package dataaccess;
 
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+
 import java.sql.*;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Properties;
+import java.util.StringJoiner;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class DatabaseManager {
     private static final String DATABASE_NAME;
     private static final String USER;
     private static final String PASSWORD;
     private static final String CONNECTION_URL;
+    private static final Properties PROPERTIES;
+
+    /*
+     * Connector/J settings added to the JDBC URL. Statements are prepared on the server
+     * and kept in a per-connection cache keyed by SQL text, so closing a PreparedStatement
+     * returns it to the cache and the next prepareStatement of the same SQL on that pooled
+     * connection skips the parse. Any of these can be overridden, and other driver
+     * settings added, with db.jdbc.<name> keys in db.properties.
+     */
+    private static final Map<String, String> JDBC_DEFAULTS = Map.of(
+            "useServerPrepStmts", "true",
+            "cachePrepStmts", "true",
+            "prepStmtCacheSize", "250",
+            "prepStmtCacheSqlLimit", "2048",
+            "cacheResultSetMetadata", "true",
+            "cacheServerConfiguration", "true",
+            "useLocalSessionState", "true",
+            "elideSetAutoCommits", "true",
+            "rewriteBatchedStatements", "true");
+
+    private static final AtomicLong ACQUIRE_COUNT = new AtomicLong();
+    private static final AtomicLong ACQUIRE_NANOS = new AtomicLong();
+    private static final AtomicLong MAX_ACQUIRE_NANOS = new AtomicLong();
+
+    private static HikariDataSource dataSource;
 
     /*
      * Load the database information for the db.properties file.
@@ -26,47 +60,144 @@ public class DatabaseManager {
 
                 var host = props.getProperty("db.host");
                 var port = Integer.parseInt(props.getProperty("db.port"));
-                CONNECTION_URL = String.format("jdbc:mysql://%s:%d", host, port);
+                CONNECTION_URL = String.format("jdbc:mysql://%s:%d?%s", host, port, jdbcParameters(props));
+                PROPERTIES = props;
             }
         } catch (Exception ex) {
             throw new RuntimeException("unable to process db.properties. " + ex.getMessage());
         }
     }
 
+    /**
+     * Connection pool counters at one moment.
+     *
+     * @param active           connections currently borrowed
+     * @param idle             open connections waiting in the pool
+     * @param waiting          threads blocked waiting for a connection
+     * @param acquired         connections handed out since the pool started
+     * @param averageWaitNanos average time a borrow took, including any wait
+     * @param maxWaitNanos     longest time a borrow took
+     */
+    public record PoolStats(int active, int idle, int waiting, long acquired, long averageWaitNanos,
+                            long maxWaitNanos) {
+    }
+
     /**
      * Creates the database if it does not already exist.
      */
     static void createDatabase() throws DataAccessException {
-        try {
-            var statement = "CREATE DATABASE IF NOT EXISTS " + DATABASE_NAME;
-            var conn = DriverManager.getConnection(CONNECTION_URL, USER, PASSWORD);
-            try (var preparedStatement = conn.prepareStatement(statement)) {
-                preparedStatement.executeUpdate();
-            }
+        var statement = "CREATE DATABASE IF NOT EXISTS " + DATABASE_NAME;
+        try (var conn = DriverManager.getConnection(CONNECTION_URL, USER, PASSWORD);
+             var preparedStatement = conn.prepareStatement(statement)) {
+            preparedStatement.executeUpdate();
         } catch (SQLException e) {
             throw new DataAccessException(e.getMessage());
         }
     }
 
     /**
-     * Create a connection to the database and sets the catalog based upon the
-     * properties specified in db.properties. Connections to the database should
-     * be short-lived, and you must close the connection when you are done with it.
-     * The easiest way to do that is with a try-with-resource block.
+     * Borrows a connection from the pool, with the catalog set to the database named
+     * in db.properties. Connections should be short-lived, and you must close the
+     * connection when you are done with it, which returns it to the pool. The easiest
+     * way to do that is with a try-with-resource block.
      * <br/>
      * <code>
-     * try (var conn = DbInfo.getConnection(databaseName)) {
+     * try (var conn = DatabaseManager.getConnection()) {
      * // execute SQL statements.
      * }
      * </code>
      */
     static Connection getConnection() throws DataAccessException {
         try {
-            var conn = DriverManager.getConnection(CONNECTION_URL, USER, PASSWORD);
-            conn.setCatalog(DATABASE_NAME);
-            return conn;
+            return dataSource().getConnection();
         } catch (SQLException e) {
             throw new DataAccessException(e.getMessage());
         }
     }
+
+    /**
+     * @return current pool counters; all zero if the pool has not been started
+     */
+    public static synchronized PoolStats poolStats() {
+        long acquired = ACQUIRE_COUNT.get();
+        long average = acquired == 0 ? 0 : ACQUIRE_NANOS.get() / acquired;
+        if (dataSource == null) {
+            return new PoolStats(0, 0, 0, acquired, average, MAX_ACQUIRE_NANOS.get());
+        }
+        HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+        return new PoolStats(pool.getActiveConnections(), pool.getIdleConnections(),
+                pool.getThreadsAwaitingConnection(), acquired, average, MAX_ACQUIRE_NANOS.get());
+    }
+
+    /**
+     * Closes every pooled connection. The pool starts again on the next
+     * {@link #getConnection()}.
+     */
+    public static synchronized void closePool() {
+        if (dataSource != null) {
+            dataSource.close();
+            dataSource = null;
+        }
+    }
+
+    // Started on first use, so the database has been created by then.
+    private static synchronized HikariDataSource dataSource() {
+        if (dataSource == null) {
+            dataSource = new HikariDataSource(poolConfig());
+        }
+        return dataSource;
+    }
+
+    /*
+     * Pool settings come from optional db.pool.* keys in db.properties:
+     * minIdle, maxSize, idleTimeoutMs, maxLifetimeMs, connectionTimeoutMs,
+     * validationTimeoutMs and leakDetectionMs (0 turns leak detection off).
+     */
+    private static HikariConfig poolConfig() {
+        HikariConfig config = new HikariConfig();
+        config.setPoolName("chess-db");
+        config.setJdbcUrl(CONNECTION_URL);
+        config.setUsername(USER);
+        config.setPassword(PASSWORD);
+        config.setCatalog(DATABASE_NAME);
+        config.setMinimumIdle(intProperty("db.pool.minIdle", 2));
+        config.setMaximumPoolSize(intProperty("db.pool.maxSize", 10));
+        config.setIdleTimeout(longProperty("db.pool.idleTimeoutMs", 60_000));
+        config.setMaxLifetime(longProperty("db.pool.maxLifetimeMs", 1_800_000));
+        config.setConnectionTimeout(longProperty("db.pool.connectionTimeoutMs", 5_000));
+        // connections idle for more than half a second are checked with isValid() before being handed out
+        config.setValidationTimeout(longProperty("db.pool.validationTimeoutMs", 1_000));
+        config.setLeakDetectionThreshold(longProperty("db.pool.leakDetectionMs", 10_000));
+        config.setRegisterMbeans(true);
+        config.setMetricsTrackerFactory((poolName, poolStats) -> new IMetricsTracker() {
+            @Override
+            public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+                ACQUIRE_COUNT.incrementAndGet();
+                ACQUIRE_NANOS.addAndGet(elapsedAcquiredNanos);
+                MAX_ACQUIRE_NANOS.accumulateAndGet(elapsedAcquiredNanos, Math::max);
+            }
+        });
+        return config;
+    }
+
+    private static String jdbcParameters(Properties props) {
+        Map<String, String> parameters = new LinkedHashMap<>(JDBC_DEFAULTS);
+        for (String key : props.stringPropertyNames()) {
+            if (key.startsWith("db.jdbc.")) {
+                parameters.put(key.substring("db.jdbc.".length()), props.getProperty(key).trim());
+            }
+        }
+        StringJoiner query = new StringJoiner("&");
+        parameters.forEach((name, value) -> query.add(name + "=" + value));
+        return query.toString();
+    }
+
+    private static int intProperty(String key, int defaultValue) {
+        return Math.toIntExact(longProperty(key, defaultValue));
+    }
+
+    private static long longProperty(String key, long defaultValue) {
+        String value = PROPERTIES.getProperty(key);
+        return value == null ? defaultValue : Long.parseLong(value.trim());
+    }
 }
@@ -1,12 +1,24 @@
 package dataaccess;
 
+import chess.ChessMove;
 import model.GameData;
+import model.GameSummary;
 import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
 
 
 public interface GameDAO {
 
 
+    /**
+     * Hands out a gameID no other game has used, without asking whether it is taken.
+     * IDs are not reused, even after {@link #clear}.
+     */
+    int allocateGameID() throws DataAccessException;
+
+
     void createGame(GameData game) throws DataAccessException;
 
 
@@ -14,9 +26,72 @@ public interface GameDAO {
 
     Collection<GameData> listGames() throws DataAccessException;
 
+    /**
+     * Lists every game without its state, for the lobby. Stores that can read names
+     * without loading boards should override this; the default goes through
+     * {@link #listGames}.
+     */
+    default Collection<GameSummary> listGameSummaries() throws DataAccessException {
+        return listGames().stream().map(GameSummary::of).toList();
+    }
+
+    /**
+     * Lists one page of games without their state, in gameID order.
+     *
+     * @see GameQuery
+     */
+    default List<GameSummary> listGameSummaries(GameQuery query) throws DataAccessException {
+        return listGameSummaries().stream()
+                .filter(query::matches)
+                .sorted(Comparator.comparingInt(GameSummary::gameID))
+                .limit(query.limit())
+                .toList();
+    }
+
 
     void updateGame(GameData game) throws DataAccessException;
 
+    /**
+     * Changes who holds the white and black seats without touching the board, but only
+     * if the seats still hold {@code expectedWhite} and {@code expectedBlack}. Joins and
+     * leaves use this, so they never write back a board another thread has moved on
+     * since. Stores should make the check and the write atomic; the default reads the
+     * game and writes it back through {@link #updateGame}.
+     *
+     * @return false if either seat no longer holds the expected player
+     */
+    default boolean updatePlayers(int gameID, String expectedWhite, String expectedBlack,
+                                  String whiteUsername, String blackUsername) throws DataAccessException {
+        GameData game = getGame(gameID);
+        if (!Objects.equals(game.whiteUsername(), expectedWhite) || !Objects.equals(game.blackUsername(), expectedBlack)) {
+            return false;
+        }
+        updateGame(new GameData(gameID, whiteUsername, blackUsername, game.gameName(), game.game()));
+        return true;
+    }
+
+    /**
+     * Stores a move that has already been played on {@code game.game()}. Stores that keep
+     * a move log append the move instead of rewriting the whole game; the default simply
+     * calls {@link #updateGame}.
+     *
+     * @param game the game as it stands after the move
+     * @param move the move that was played
+     */
+    default void recordMove(GameData game, ChessMove move) throws DataAccessException {
+        updateGame(game);
+    }
+
+    /**
+     * Stores several moves, in the order they were played, that have already been played
+     * on {@code game.game()}.
+     *
+     * @see #recordMove
+     */
+    default void recordMoves(GameData game, List<ChessMove> moves) throws DataAccessException {
+        updateGame(game);
+    }
+
 
     void clear() throws DataAccessException;
 }
@@ -1,19 +1,129 @@
 package dataaccess;
 
+import chess.CastlingRights;
 import chess.ChessGame;
+import chess.ChessMove;
+import chess.piecemovescalculator.PackedMove;
 import com.google.gson.Gson;
+import com.google.gson.JsonParser;
 import model.GameData;
+import model.GameSummary;
 
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 
+/**
+ * Games in MySQL. Each game row holds a snapshot of the game state in
+ * {@code gameStateBinary}, taken at ply {@code snapshotPly}; moves played since are
+ * appended to {@code game_moves}, one row per ply. Reading a game replays the moves
+ * after the snapshot, and a new snapshot is written every {@code snapshotInterval}
+ * plies so the replayed tail stays short.
+ * <p>
+ * A ply is counted from the game's own move counters (see {@link #plyOf}), so it keeps
+ * increasing across snapshots and for games set up from a FEN.
+ */
 public class GameDAOSQL implements GameDAO {
 
+    public static final int DEFAULT_SNAPSHOT_INTERVAL = 16;
+
+    private static final String INSERT_GAME_SQL = """
+      INSERT INTO chess_table (gameID, whiteTeam, blackTeam, gameName, gameState, gameStateBinary, snapshotPly)
+      VALUES (?,?,?,?,NULL,?,?)
+    """;
+
+    private static final String SELECT_GAME_SQL = """
+      SELECT c.gameID, c.whiteTeam, c.blackTeam, c.gameName, c.gameState, c.gameStateBinary, m.move
+      FROM chess_table c
+      LEFT JOIN game_moves m ON m.gameID = c.gameID AND m.ply > c.snapshotPly
+      WHERE c.gameID=?
+      ORDER BY m.ply
+    """;
+
+    private static final String SELECT_SUMMARIES_SQL = """
+      SELECT gameID, whiteTeam, blackTeam, gameName
+      FROM chess_table
+      ORDER BY gameID
+    """;
+
+    private static final String SELECT_ALL_GAMES_SQL = """
+      SELECT c.gameID, c.whiteTeam, c.blackTeam, c.gameName, c.gameState, c.gameStateBinary, m.move
+      FROM chess_table c
+      LEFT JOIN game_moves m ON m.gameID = c.gameID AND m.ply > c.snapshotPly
+      ORDER BY c.gameID, m.ply
+    """;
+
+    private static final String UPDATE_GAME_SQL = """
+      UPDATE chess_table
+      SET whiteTeam=?, blackTeam=?, gameName=?, gameState=NULL, gameStateBinary=?, snapshotPly=?
+      WHERE gameID=?
+    """;
+
+    // <=> is NULL-safe equality, so an empty seat can be the expected value
+    private static final String UPDATE_PLAYERS_SQL = """
+      UPDATE chess_table SET whiteTeam=?, blackTeam=?
+      WHERE gameID=? AND whiteTeam <=> ? AND blackTeam <=> ?
+    """;
+
+    private static final String GAME_EXISTS_SQL = "SELECT 1 FROM chess_table WHERE gameID=?";
+
+    // moves past a rewritten snapshot would be replayed onto it, so updateGame drops them
+    private static final String TRIM_MOVES_SQL = "DELETE FROM game_moves WHERE gameID=? AND ply > ?";
+
+    private static final String INSERT_MOVE_SQL = "INSERT INTO game_moves (gameID, ply, move) VALUES (?,?,?)";
+
+    private static final String UPDATE_SNAPSHOT_SQL = """
+      UPDATE chess_table SET gameState=NULL, gameStateBinary=?, snapshotPly=?
+      WHERE gameID=?
+    """;
+
+    public static final int DEFAULT_ID_BLOCK_SIZE = 100;
+    private static final String GAME_SEQUENCE = "game";
+
+    // LAST_INSERT_ID(expr) hands the new value back on this connection, so a block is reserved in one statement
+    private static final String RESERVE_IDS_SQL = """
+      UPDATE game_id_sequence SET nextValue = LAST_INSERT_ID(nextValue + ?) WHERE name=?
+    """;
+
+    private final int snapshotInterval;
+    private final int idBlockSize;
+    // IDs in [nextGameID, idBlockEnd) are reserved for this DAO; guarded by this
+    private long nextGameID;
+    private long idBlockEnd;
+
     public GameDAOSQL() {
+        this(DEFAULT_SNAPSHOT_INTERVAL, DEFAULT_ID_BLOCK_SIZE);
+    }
+
+    public GameDAOSQL(int snapshotInterval) {
+        this(snapshotInterval, DEFAULT_ID_BLOCK_SIZE);
+    }
+
+    /**
+     * @param snapshotInterval plies between game state snapshots; 1 snapshots every move
+     * @param idBlockSize      gameIDs reserved from the database at a time
+     */
+    public GameDAOSQL(int snapshotInterval, int idBlockSize) {
+        if (snapshotInterval < 1) {
+            throw new IllegalArgumentException("Snapshot interval must be at least 1: " + snapshotInterval);
+        }
+        if (idBlockSize < 1) {
+            throw new IllegalArgumentException("ID block size must be at least 1: " + idBlockSize);
+        }
+        this.snapshotInterval = snapshotInterval;
+        this.idBlockSize = idBlockSize;
         try {
             DatabaseManager.createDatabase();
             createGameTableIfMissing();
+            addColumnIfMissing("gameStateBinary", "VARBINARY(64)");
+            addColumnIfMissing("snapshotPly", "INT NOT NULL DEFAULT 0");
+            createMoveTableIfMissing();
+            addIndexIfMissing("idx_chess_white", "whiteTeam, gameID");
+            addIndexIfMissing("idx_chess_black", "blackTeam, gameID");
+            addIndexIfMissing("idx_chess_name", "gameName, gameID");
+            migrateLegacyGameStates();
+            createIdSequenceIfMissing();
         } catch (DataAccessException e) {
             throw new RuntimeException("Failed to initialize GameDAOSQL: " + e.getMessage());
         }
@@ -26,7 +136,9 @@ public class GameDAOSQL implements GameDAO {
               whiteTeam VARCHAR(255),
               blackTeam VARCHAR(255),
               gameName VARCHAR(255),
-              gameState TEXT
+              gameState TEXT,
+              gameStateBinary VARBINARY(64),
+              snapshotPly INT NOT NULL DEFAULT 0
           )
         """;
 
@@ -38,20 +150,176 @@ public class GameDAOSQL implements GameDAO {
         }
     }
 
-    @Override
-    public void createGame(GameData game) throws DataAccessException {
-        String insertSQL = """
-          INSERT INTO chess_table (gameID, whiteTeam, blackTeam, gameName, gameState)
-          VALUES (?,?,?,?,?)
+    // Tables created by older versions lack the columns added since.
+    private void addColumnIfMissing(String column, String definition) throws DataAccessException {
+        String checkSQL = """
+          SELECT COUNT(*) FROM information_schema.COLUMNS
+          WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'chess_table' AND COLUMN_NAME = ?
+        """;
+        String alterSQL = "ALTER TABLE chess_table ADD COLUMN " + column + " " + definition;
+
+        try (Connection conn = DatabaseManager.getConnection();
+             PreparedStatement check = conn.prepareStatement(checkSQL)) {
+            check.setString(1, column);
+            try (ResultSet rs = check.executeQuery()) {
+                if (rs.next() && rs.getInt(1) == 0) {
+                    try (PreparedStatement alter = conn.prepareStatement(alterSQL)) {
+                        alter.executeUpdate();
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException("Could not add " + column + " column: " + e.getMessage());
+        }
+    }
+
+    // Starts the sequence above every existing gameID, including ones picked at random before it existed.
+    private void createIdSequenceIfMissing() throws DataAccessException {
+        String createSQL = """
+          CREATE TABLE IF NOT EXISTS game_id_sequence (
+              name VARCHAR(64) NOT NULL PRIMARY KEY,
+              nextValue BIGINT NOT NULL
+          )
+        """;
+        String seedSQL = "INSERT IGNORE INTO game_id_sequence (name, nextValue) VALUES (?, 1)";
+        String catchUpSQL = """
+          UPDATE game_id_sequence
+          SET nextValue = GREATEST(nextValue, (SELECT COALESCE(MAX(gameID), 0) + 1 FROM chess_table))
+          WHERE name=?
+        """;
+
+        try (Connection conn = DatabaseManager.getConnection();
+             PreparedStatement create = conn.prepareStatement(createSQL);
+             PreparedStatement seed = conn.prepareStatement(seedSQL);
+             PreparedStatement catchUp = conn.prepareStatement(catchUpSQL)) {
+            create.executeUpdate();
+            seed.setString(1, GAME_SEQUENCE);
+            seed.executeUpdate();
+            catchUp.setString(1, GAME_SEQUENCE);
+            catchUp.executeUpdate();
+        } catch (SQLException e) {
+            throw new DataAccessException("Could not create 'game_id_sequence': " + e.getMessage());
+        }
+    }
+
+    // backs the player and name filters of the paged game list; MySQL has no CREATE INDEX IF NOT EXISTS
+    private void addIndexIfMissing(String index, String columns) throws DataAccessException {
+        String checkSQL = """
+          SELECT COUNT(*) FROM information_schema.STATISTICS
+          WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'chess_table' AND INDEX_NAME = ?
+        """;
+        String createSQL = "CREATE INDEX " + index + " ON chess_table (" + columns + ")";
+
+        try (Connection conn = DatabaseManager.getConnection();
+             PreparedStatement check = conn.prepareStatement(checkSQL)) {
+            check.setString(1, index);
+            try (ResultSet rs = check.executeQuery()) {
+                if (rs.next() && rs.getInt(1) == 0) {
+                    try (PreparedStatement create = conn.prepareStatement(createSQL)) {
+                        create.executeUpdate();
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException("Could not create index " + index + ": " + e.getMessage());
+        }
+    }
+
+    private void createMoveTableIfMissing() throws DataAccessException {
+        String sql = """
+          CREATE TABLE IF NOT EXISTS game_moves (
+              gameID INT NOT NULL,
+              ply INT NOT NULL,
+              move INT NOT NULL,
+              PRIMARY KEY (gameID, ply)
+          )
+        """;
+
+        try (Connection conn = DatabaseManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.executeUpdate();
+        } catch (SQLException e) {
+            throw new DataAccessException("Could not create 'game_moves': " + e.getMessage());
+        }
+    }
+
+    // Rewrites rows still holding Gson JSON into the binary format, one row at a time.
+    private void migrateLegacyGameStates() throws DataAccessException {
+        String selectSQL = """
+          SELECT gameID, gameState FROM chess_table
+          WHERE gameStateBinary IS NULL AND gameState IS NOT NULL
+        """;
+        String updateSQL = """
+          UPDATE chess_table SET gameStateBinary=?, snapshotPly=?, gameState=NULL
+          WHERE gameID=? AND gameStateBinary IS NULL
         """;
 
         try (Connection conn = DatabaseManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(insertSQL)) {
+             PreparedStatement select = conn.prepareStatement(selectSQL);
+             PreparedStatement update = conn.prepareStatement(updateSQL);
+             ResultSet rs = select.executeQuery()) {
+            while (rs.next()) {
+                ChessGame game = deserializeLegacyChessGame(rs.getString("gameState"));
+                update.setBytes(1, GameStateCodec.encode(game));
+                update.setInt(2, plyOf(game));
+                update.setInt(3, rs.getInt("gameID"));
+                update.executeUpdate();
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException("Could not migrate legacy game states: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Hands out IDs from a block reserved in {@code game_id_sequence}, so only one call in
+     * {@code idBlockSize} touches the database. Blocks are reserved atomically, so several
+     * servers sharing a database never get the same ID. GameIDs are 32-bit, as in
+     * {@link GameData} and the WebSocket commands. The sequence column is BIGINT only so
+     * that reserving a block near the top cannot overflow it; an ID past
+     * {@link Integer#MAX_VALUE} is refused.
+     */
+    @Override
+    public synchronized int allocateGameID() throws DataAccessException {
+        if (nextGameID >= idBlockEnd) {
+            idBlockEnd = reserveIdBlock();
+            nextGameID = idBlockEnd - idBlockSize;
+        }
+        try {
+            return Math.toIntExact(nextGameID++);
+        } catch (ArithmeticException e) {
+            throw new DataAccessException("Game IDs exhausted: gameIDs are 32-bit");
+        }
+    }
+
+    // returns the end of the reserved block: the sequence value after the reservation
+    private long reserveIdBlock() throws DataAccessException {
+        try (Connection conn = DatabaseManager.getConnection();
+             PreparedStatement reserve = conn.prepareStatement(RESERVE_IDS_SQL);
+             PreparedStatement lastValue = conn.prepareStatement("SELECT LAST_INSERT_ID()")) {
+            reserve.setInt(1, idBlockSize);
+            reserve.setString(2, GAME_SEQUENCE);
+            if (reserve.executeUpdate() == 0) {
+                throw new DataAccessException("Game ID sequence is missing");
+            }
+            try (ResultSet rs = lastValue.executeQuery()) {
+                rs.next();
+                return rs.getLong(1);
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException("Could not reserve game IDs: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void createGame(GameData game) throws DataAccessException {
+        try (Connection conn = DatabaseManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(INSERT_GAME_SQL)) {
             stmt.setInt(1, game.gameID());
             stmt.setString(2, game.whiteUsername());
             stmt.setString(3, game.blackUsername());
             stmt.setString(4, game.gameName());
-            stmt.setString(5, serializeChessGame(game.game()));
+            stmt.setBytes(5, serializeChessGame(game.game()));
+            stmt.setInt(6, plyOf(game.game()));
             stmt.executeUpdate();
         } catch (SQLException e) {
             throw new DataAccessException("Unable to create game record: " + e.getMessage());
@@ -60,28 +328,16 @@ public class GameDAOSQL implements GameDAO {
 
     @Override
     public GameData getGame(int gameID) throws DataAccessException {
-        String selectSQL = """
-          SELECT whiteTeam, blackTeam, gameName, gameState
-          FROM chess_table
-          WHERE gameID=?
-        """;
-
         try (Connection conn = DatabaseManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(selectSQL)) {
+             PreparedStatement stmt = conn.prepareStatement(SELECT_GAME_SQL)) {
 
             stmt.setInt(1, gameID);
 
             try (ResultSet rs = stmt.executeQuery()) {
                 if (!rs.next()) {
-                    throw new DataAccessException("Game not found for ID: " + gameID);
+                    throw new GameNotFoundException("Game not found for ID: " + gameID);
                 }
-                String white = rs.getString("whiteTeam");
-                String black = rs.getString("blackTeam");
-                String name = rs.getString("gameName");
-                String gameJson = rs.getString("gameState");
-                ChessGame cg = deserializeChessGame(gameJson);
-
-                return new GameData(gameID, white, black, name, cg);
+                return readGame(rs);
             }
         } catch (SQLException e) {
             throw new DataAccessException("Error retrieving game with ID=" + gameID + ": " + e.getMessage());
@@ -90,26 +346,16 @@ public class GameDAOSQL implements GameDAO {
 
     @Override
     public Collection<GameData> listGames() throws DataAccessException {
-        String selectSQL = """
-          SELECT gameID, whiteTeam, blackTeam, gameName, gameState
-          FROM chess_table
-        """;
-
         var resultSet = new ArrayList<GameData>();
 
         try (Connection conn = DatabaseManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(selectSQL);
+             PreparedStatement stmt = conn.prepareStatement(SELECT_ALL_GAMES_SQL);
              ResultSet rs = stmt.executeQuery()) {
 
-            while (rs.next()) {
-                int gameID = rs.getInt("gameID");
-                String white = rs.getString("whiteTeam");
-                String black = rs.getString("blackTeam");
-                String gName = rs.getString("gameName");
-                String stateJson = rs.getString("gameState");
-
-                ChessGame cg = deserializeChessGame(stateJson);
-                resultSet.add(new GameData(gameID, white, black, gName, cg));
+            boolean more = rs.next();
+            while (more) {
+                resultSet.add(readGame(rs));
+                more = !rs.isAfterLast();
             }
         } catch (SQLException e) {
             throw new DataAccessException("Error listing games: " + e.getMessage());
@@ -118,53 +364,257 @@ public class GameDAOSQL implements GameDAO {
     }
 
     @Override
-    public void updateGame(GameData game) throws DataAccessException {
-        String updateSQL = """
-          UPDATE chess_table
-          SET whiteTeam=?, blackTeam=?, gameName=?, gameState=?
-          WHERE gameID=?
-        """;
+    public Collection<GameSummary> listGameSummaries() throws DataAccessException {
+        var summaries = new ArrayList<GameSummary>();
+
+        try (Connection conn = DatabaseManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(SELECT_SUMMARIES_SQL);
+             ResultSet rs = stmt.executeQuery()) {
+
+            while (rs.next()) {
+                summaries.add(new GameSummary(rs.getInt("gameID"), rs.getString("whiteTeam"),
+                        rs.getString("blackTeam"), rs.getString("gameName")));
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException("Error listing games: " + e.getMessage());
+        }
+        return summaries;
+    }
+
+    /**
+     * Pages with a keyset on gameID: each page starts where the last one ended, so deep
+     * pages cost the same as the first. Only the clauses for the filters in use are added,
+     * which keeps the number of distinct statements small for the statement cache.
+     */
+    @Override
+    public List<GameSummary> listGameSummaries(GameQuery query) throws DataAccessException {
+        StringBuilder sql = new StringBuilder("SELECT gameID, whiteTeam, blackTeam, gameName FROM chess_table WHERE gameID > ?");
+        if (query.openSeatsOnly()) {
+            sql.append(" AND (whiteTeam IS NULL OR blackTeam IS NULL)");
+        }
+        if (query.player() != null) {
+            sql.append(" AND (whiteTeam = ? OR blackTeam = ?)");
+        }
+        if (query.namePrefix() != null) {
+            sql.append(" AND gameName LIKE ?");
+        }
+        sql.append(" ORDER BY gameID LIMIT ?");
+
+        var summaries = new ArrayList<GameSummary>();
 
         try (Connection conn = DatabaseManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(updateSQL)) {
+             PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
 
-            stmt.setString(1, game.whiteUsername());
-            stmt.setString(2, game.blackUsername());
-            stmt.setString(3, game.gameName());
-            stmt.setString(4, serializeChessGame(game.game()));
-            stmt.setInt(5, game.gameID());
+            int index = 1;
+            stmt.setInt(index++, query.afterGameID());
+            if (query.player() != null) {
+                stmt.setString(index++, query.player());
+                stmt.setString(index++, query.player());
+            }
+            if (query.namePrefix() != null) {
+                stmt.setString(index++, escapeLike(query.namePrefix()) + "%");
+            }
+            stmt.setInt(index, query.limit());
 
-            int rows = stmt.executeUpdate();
-            if (rows == 0) {
-                throw new DataAccessException("No row found to update for gameID=" + game.gameID());
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    summaries.add(new GameSummary(rs.getInt("gameID"), rs.getString("whiteTeam"),
+                            rs.getString("blackTeam"), rs.getString("gameName")));
+                }
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException("Error listing games: " + e.getMessage());
+        }
+        return summaries;
+    }
+
+    @Override
+    public void updateGame(GameData game) throws DataAccessException {
+        int ply = plyOf(game.game());
+        try (Connection conn = DatabaseManager.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(UPDATE_GAME_SQL);
+                 PreparedStatement trim = conn.prepareStatement(TRIM_MOVES_SQL)) {
+
+                stmt.setString(1, game.whiteUsername());
+                stmt.setString(2, game.blackUsername());
+                stmt.setString(3, game.gameName());
+                stmt.setBytes(4, serializeChessGame(game.game()));
+                stmt.setInt(5, ply);
+                stmt.setInt(6, game.gameID());
+
+                int rows = stmt.executeUpdate();
+                if (rows == 0) {
+                    conn.rollback();
+                    throw new DataAccessException("No row found to update for gameID=" + game.gameID());
+                }
+                trim.setInt(1, game.gameID());
+                trim.setInt(2, ply);
+                trim.executeUpdate();
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
             }
         } catch (SQLException e) {
             throw new DataAccessException("Error updating game: " + e.getMessage());
         }
     }
 
+    /**
+     * Writes only the two seat columns, in one conditional UPDATE. The board and the move
+     * log are left alone.
+     */
+    @Override
+    public boolean updatePlayers(int gameID, String expectedWhite, String expectedBlack,
+                                 String whiteUsername, String blackUsername) throws DataAccessException {
+        try (Connection conn = DatabaseManager.getConnection()) {
+            try (PreparedStatement stmt = conn.prepareStatement(UPDATE_PLAYERS_SQL)) {
+                stmt.setString(1, whiteUsername);
+                stmt.setString(2, blackUsername);
+                stmt.setInt(3, gameID);
+                stmt.setString(4, expectedWhite);
+                stmt.setString(5, expectedBlack);
+                // Connector/J reports matched rows, so a write of the same names still counts
+                if (stmt.executeUpdate() > 0) {
+                    return true;
+                }
+            }
+            try (PreparedStatement exists = conn.prepareStatement(GAME_EXISTS_SQL)) {
+                exists.setInt(1, gameID);
+                try (ResultSet rs = exists.executeQuery()) {
+                    if (!rs.next()) {
+                        throw new GameNotFoundException("Game not found for ID: " + gameID);
+                    }
+                }
+            }
+            return false;
+        } catch (SQLException e) {
+            throw new DataAccessException("Error updating players for gameID=" + gameID + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Appends the move to {@code game_moves}, and also writes a snapshot when the move
+     * lands on a multiple of the snapshot interval. Player names are not written.
+     */
+    @Override
+    public void recordMove(GameData game, ChessMove move) throws DataAccessException {
+        recordMoves(game, List.of(move));
+    }
+
+    @Override
+    public void recordMoves(GameData game, List<ChessMove> moves) throws DataAccessException {
+        if (moves.isEmpty()) {
+            return;
+        }
+
+        int lastPly = plyOf(game.game());
+        int firstPly = lastPly - moves.size() + 1;
+        boolean snapshot = Math.floorDiv(lastPly, snapshotInterval) != Math.floorDiv(firstPly - 1, snapshotInterval);
+
+        try (Connection conn = DatabaseManager.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement insert = conn.prepareStatement(INSERT_MOVE_SQL)) {
+                for (int i = 0; i < moves.size(); i++) {
+                    insert.setInt(1, game.gameID());
+                    insert.setInt(2, firstPly + i);
+                    insert.setInt(3, PackedMove.encode(moves.get(i)));
+                    insert.addBatch();
+                }
+                insert.executeBatch();
+                if (snapshot) {
+                    try (PreparedStatement stmt = conn.prepareStatement(UPDATE_SNAPSHOT_SQL)) {
+                        stmt.setBytes(1, serializeChessGame(game.game()));
+                        stmt.setInt(2, lastPly);
+                        stmt.setInt(3, game.gameID());
+                        stmt.executeUpdate();
+                    }
+                }
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException("Error recording moves for gameID=" + game.gameID() + ": " + e.getMessage());
+        }
+    }
+
     @Override
     public void clear() throws DataAccessException {
-        String truncateSQL = "TRUNCATE chess_table";
         try (Connection conn = DatabaseManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(truncateSQL)) {
-            stmt.executeUpdate();
+             PreparedStatement moves = conn.prepareStatement("TRUNCATE game_moves");
+             PreparedStatement games = conn.prepareStatement("TRUNCATE chess_table")) {
+            moves.executeUpdate();
+            games.executeUpdate();
         } catch (SQLException e) {
             throw new DataAccessException("Error clearing chess_table: " + e.getMessage());
         }
     }
 
-    private String serializeChessGame(ChessGame cg) {
+    private static String escapeLike(String text) {
+        return text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    /**
+     * Plies played since the start of a game, going by its FEN move counters: 0 at the
+     * start position, 1 after white's first move, and so on.
+     */
+    static int plyOf(ChessGame game) {
+        if (game == null) {
+            return 0;
+        }
+        return 2 * (game.getFullmoveNumber() - 1) + (game.getTeamTurn() == ChessGame.TeamColor.BLACK ? 1 : 0);
+    }
+
+    // Reads one game from a row of the snapshot/move join, advancing past every row that
+    // belongs to it; the result set is left on the next game's first row or after the last.
+    private GameData readGame(ResultSet rs) throws SQLException, DataAccessException {
+        int gameID = rs.getInt("gameID");
+        String white = rs.getString("whiteTeam");
+        String black = rs.getString("blackTeam");
+        String name = rs.getString("gameName");
+        ChessGame cg = readChessGame(rs);
+
+        do {
+            int move = rs.getInt("move");
+            if (!rs.wasNull()) {
+                if (cg == null) {
+                    throw new DataAccessException("Game " + gameID + " has moves but no snapshot");
+                }
+                cg.applyMove(move);
+            }
+        } while (rs.next() && rs.getInt("gameID") == gameID);
+
+        return new GameData(gameID, white, black, name, cg);
+    }
+
+    private byte[] serializeChessGame(ChessGame cg) {
         if (cg == null) {
             return null;
         }
-        return new Gson().toJson(cg);
+        return GameStateCodec.encode(cg);
     }
 
-    private ChessGame deserializeChessGame(String json) {
+    // Prefers the binary column; JSON is only read for a row the startup migration has not reached.
+    private ChessGame readChessGame(ResultSet rs) throws SQLException, DataAccessException {
+        byte[] data = rs.getBytes("gameStateBinary");
+        if (data != null) {
+            return GameStateCodec.decode(data);
+        }
+        return deserializeLegacyChessGame(rs.getString("gameState"));
+    }
+
+    private ChessGame deserializeLegacyChessGame(String json) {
         if (json == null){
             return null;
         }
-        return new Gson().fromJson(json, ChessGame.class);
+        ChessGame game = new Gson().fromJson(json, ChessGame.class);
+        if (!JsonParser.parseString(json).getAsJsonObject().has("castlingRights")) {
+            // written before castling was tracked; assume rights wherever king and rook are home
+            game.setCastlingRights(CastlingRights.fromBoard(game.getBoard()));
+        }
+        return game;
     }
 }
@@ -0,0 +1,10 @@
+package dataaccess;
+
+/**
+ * Indicates the requested game does not exist, as opposed to the database failing
+ */
+public class GameNotFoundException extends DataAccessException {
+    public GameNotFoundException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,48 @@
+package dataaccess;
+
+import model.GameSummary;
+
+/**
+ * Selects one page of the game list. Games are listed in gameID order starting after
+ * {@code afterGameID}, so the last gameID of a page is the cursor for the next one.
+ *
+ * @param afterGameID   only games with a larger gameID; 0 for the first page
+ * @param limit         most games to return
+ * @param openSeatsOnly only games with a free white or black seat
+ * @param player        only games this user plays in, or null for any
+ * @param namePrefix    only games whose name starts with this, ignoring case, or null for any
+ */
+public record GameQuery(int afterGameID, int limit, boolean openSeatsOnly, String player, String namePrefix) {
+
+    public GameQuery {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Page size must be at least 1: " + limit);
+        }
+    }
+
+    public GameQuery withLimit(int newLimit) {
+        return new GameQuery(afterGameID, newLimit, openSeatsOnly, player, namePrefix);
+    }
+
+    public GameQuery withPlayer(String newPlayer) {
+        return new GameQuery(afterGameID, limit, openSeatsOnly, newPlayer, namePrefix);
+    }
+
+    /**
+     * @return whether a game passes the cursor and every filter
+     */
+    public boolean matches(GameSummary game) {
+        if (game.gameID() <= afterGameID) {
+            return false;
+        }
+        if (openSeatsOnly && game.whiteUsername() != null && game.blackUsername() != null) {
+            return false;
+        }
+        if (player != null && !player.equals(game.whiteUsername()) && !player.equals(game.blackUsername())) {
+            return false;
+        }
+        // ignores case like the SQL path, whose LIKE runs under the column's case-insensitive collation
+        return namePrefix == null || (game.gameName() != null
+                && game.gameName().regionMatches(true, 0, namePrefix, 0, namePrefix.length()));
+    }
+}
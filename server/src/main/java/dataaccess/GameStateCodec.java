@@ -0,0 +1,97 @@
+package dataaccess;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+import chess.ChessPosition;
+
+/**
+ * Binary form of a {@link ChessGame} for the {@code chess_table.gameStateBinary} column.
+ * <pre>
+ * byte  0      format version ({@link #VERSION})
+ * bytes 1-32   one nibble per square, a1 first, low nibble before high nibble:
+ *              0 for empty, otherwise piece index + 1 (see ChessBoard.pieceIndex)
+ * byte  33     bit 0 set when black is to move, bits 1-4 castling rights
+ * byte  34     en passant square + 1, or 0 for none
+ * byte  35     halfmove clock, saturating at 255                     (version 2)
+ * bytes 36-37  fullmove number, big-endian                           (version 2)
+ * </pre>
+ * Readers reject versions they do not know, so the layout can change by bumping the
+ * version and keeping a decoder for the old one. Version 1 has no move counters; games
+ * read from it start the counters at 0 and 1.
+ */
+public final class GameStateCodec {
+
+    public static final byte VERSION = 2;
+    public static final int ENCODED_LENGTH = 38;
+
+    private static final byte VERSION_1 = 1;
+    private static final int VERSION_1_LENGTH = 35;
+
+    private GameStateCodec() {
+    }
+
+    public static byte[] encode(ChessGame game) {
+        byte[] data = new byte[ENCODED_LENGTH];
+        data[0] = VERSION;
+
+        ChessBoard board = game.getBoard();
+        for (int square = 0; square < 64; square++) {
+            ChessPiece piece = board.getPiece(square);
+            if (piece != null) {
+                int nibble = ChessBoard.pieceIndex(piece.getTeamColor(), piece.getPieceType()) + 1;
+                data[1 + square / 2] |= (byte) (nibble << ((square & 1) * 4));
+            }
+        }
+
+        int flags = (game.getTeamTurn() == ChessGame.TeamColor.BLACK) ? 1 : 0;
+        flags |= game.getCastlingRights() << 1;
+        data[33] = (byte) flags;
+
+        ChessPosition enPassant = game.getEnPassantSquare();
+        data[34] = (byte) (enPassant == null ? 0 : ChessBoard.squareIndex(enPassant) + 1);
+
+        data[35] = (byte) Math.min(game.getHalfmoveClock(), 255);
+        int fullmove = Math.min(game.getFullmoveNumber(), 0xFFFF);
+        data[36] = (byte) (fullmove >>> 8);
+        data[37] = (byte) fullmove;
+        return data;
+    }
+
+    public static ChessGame decode(byte[] data) throws DataAccessException {
+        if (data.length == 0 || (data[0] != VERSION && data[0] != VERSION_1)) {
+            throw new DataAccessException("Unsupported game state version: "
+                    + (data.length == 0 ? "empty" : data[0]));
+        }
+        int expectedLength = (data[0] == VERSION_1) ? VERSION_1_LENGTH : ENCODED_LENGTH;
+        if (data.length != expectedLength) {
+            throw new DataAccessException("Game state has " + data.length + " bytes, expected " + expectedLength);
+        }
+
+        ChessBoard board = new ChessBoard();
+        for (int square = 0; square < 64; square++) {
+            int nibble = (data[1 + square / 2] >>> ((square & 1) * 4)) & 0xF;
+            if (nibble > 12) {
+                throw new DataAccessException("Corrupt game state: bad piece code " + nibble);
+            }
+            if (nibble != 0) {
+                board.addPiece(ChessPosition.ofSquare(square), ChessBoard.pieceFromIndex(nibble - 1));
+            }
+        }
+
+        ChessGame game = new ChessGame();
+        game.setBoard(board);
+        int flags = data[33] & 0xFF;
+        game.setTeamTurn((flags & 1) != 0 ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE);
+        game.setCastlingRights(flags >>> 1);
+        int enPassant = data[34] & 0xFF;
+        if (enPassant > 64) {
+            throw new DataAccessException("Corrupt game state: bad en passant square " + enPassant);
+        }
+        game.setEnPassantSquare(enPassant == 0 ? null : ChessPosition.ofSquare(enPassant - 1));
+        if (data[0] != VERSION_1) {
+            game.setMoveClocks(data[35] & 0xFF, Math.max(((data[36] & 0xFF) << 8) | (data[37] & 0xFF), 1));
+        }
+        return game;
+    }
+}
@@ -4,16 +4,23 @@ import model.GameData;
 
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 
 public class MemoryGameDAO implements GameDAO {
 
     private final HashMap<Integer, GameData> gameMap;
+    private final AtomicInteger nextGameID = new AtomicInteger(1);
 
     public MemoryGameDAO() {
         gameMap = new HashMap<>();
     }
 
+    @Override
+    public int allocateGameID() {
+        return nextGameID.getAndIncrement();
+    }
+
     @Override
     public void createGame(GameData game) throws DataAccessException {
         if (gameMap.containsKey(game.gameID())) {
@@ -25,7 +32,7 @@ public class MemoryGameDAO implements GameDAO {
     @Override
     public GameData getGame(int gameID) throws DataAccessException {
         if (!gameMap.containsKey(gameID)) {
-            throw new DataAccessException("Game not found: " + gameID);
+            throw new GameNotFoundException("Game not found: " + gameID);
         }
         return gameMap.get(gameID);
     }
@@ -10,6 +10,10 @@ import java.sql.SQLException;
 
 public class UserDAOSQL implements UserDAO {
 
+    private static final String INSERT_SQL = "INSERT INTO user_table (username, hashedPw, email) VALUES (?, ?, ?)";
+    private static final String SELECT_SQL = "SELECT hashedPw, email FROM user_table WHERE username=?";
+    private static final String TRUNCATE_SQL = "TRUNCATE user_table";
+
     public UserDAOSQL() {
         try {
             DatabaseManager.createDatabase();
@@ -38,9 +42,8 @@ public class UserDAOSQL implements UserDAO {
     @Override
     public void createUser(UserData user) throws DataAccessException {
         String hashed = BCrypt.hashpw(user.password(), BCrypt.gensalt());
-        String sql = "INSERT INTO user_table (username, hashedPw, email) VALUES (?, ?, ?)";
         try (Connection conn = DatabaseManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = conn.prepareStatement(INSERT_SQL)) {
 
             stmt.setString(1, user.username());
             stmt.setString(2, hashed);
@@ -54,9 +57,8 @@ public class UserDAOSQL implements UserDAO {
 
     @Override
     public UserData getUser(String username) throws DataAccessException {
-        String sql = "SELECT hashedPw, email FROM user_table WHERE username=?";
         try (Connection conn = DatabaseManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = conn.prepareStatement(SELECT_SQL)) {
             stmt.setString(1, username);
             try (ResultSet rs = stmt.executeQuery()) {
                 if (!rs.next()) {
@@ -73,9 +75,8 @@ public class UserDAOSQL implements UserDAO {
 
     @Override
     public void clear() {
-        String sql = "TRUNCATE user_table";
         try (Connection conn = DatabaseManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = conn.prepareStatement(TRUNCATE_SQL)) {
             stmt.executeUpdate();
         } catch (SQLException | DataAccessException e) {
         }
@@ -3,35 +3,51 @@ package server;
 import org.eclipse.jetty.websocket.api.Session;
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
 
+/**
+ * Sessions connected to each game. Joins and leaves only lock the one game's entry
+ * for the update, and broadcasts send without holding any lock, so a slow client
+ * never holds up other games.
+ */
 public class ConnectionManager {
-    private static final Map<Integer, Set<Session>> GAME_CONNECTIONS = new HashMap<>();
+    private static final ConcurrentHashMap<Integer, CopyOnWriteArraySet<Session>> GAME_CONNECTIONS =
+            new ConcurrentHashMap<>();
 
-    public static synchronized void addConnection(int gameID, Session session) {
-        GAME_CONNECTIONS.putIfAbsent(gameID, new HashSet<>());
-        GAME_CONNECTIONS.get(gameID).add(session);
+    public static void addConnection(int gameID, Session session) {
+        // compute keeps this atomic with removeConnection dropping an emptied set
+        GAME_CONNECTIONS.compute(gameID, (id, sessions) -> {
+            if (sessions == null) {
+                sessions = new CopyOnWriteArraySet<>();
+            }
+            sessions.add(session);
+            return sessions;
+        });
     }
 
-    public static synchronized void removeConnection(int gameID, Session session) {
-        Set<Session> sessions = GAME_CONNECTIONS.get(gameID);
-        if (sessions != null) {
+    public static void removeConnection(int gameID, Session session) {
+        GAME_CONNECTIONS.computeIfPresent(gameID, (id, sessions) -> {
             sessions.remove(session);
-            if (sessions.isEmpty()) {
-                GAME_CONNECTIONS.remove(gameID);
-            }
-        }
+            return sessions.isEmpty() ? null : sessions;
+        });
     }
-    public static synchronized Set<Session> getConnectionsForGame(int gameID) {
-        return GAME_CONNECTIONS.getOrDefault(gameID, Collections.emptySet());
+
+    /**
+     * @return a copy of the game's sessions at this moment
+     */
+    public static Set<Session> getConnectionsForGame(int gameID) {
+        Set<Session> sessions = GAME_CONNECTIONS.get(gameID);
+        return sessions == null ? Collections.emptySet() : Set.copyOf(sessions);
     }
 
-    public static synchronized void broadcastToGame(int gameID, String jsonMessage) {
+    public static void broadcastToGame(int gameID, String jsonMessage) {
         Set<Session> sessions = GAME_CONNECTIONS.get(gameID);
         if (sessions == null) {
             return;
         }
 
-
+        // iterates a snapshot; joins and leaves during the sends are not blocked
         for (Session s : sessions) {
             if (s.isOpen()) {
                 try {
@@ -0,0 +1,125 @@
+package server;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs commands one game at a time. Each game has a mailbox: commands for it run in the
+ * order they were submitted, never two at once, while different games run in parallel
+ * on a shared pool. A mailbox holds at most {@code capacity} waiting commands, and one
+ * that empties is dropped until the game's next command. After {@link #shutdown} new
+ * commands are refused, and mailboxes already running finish what they hold.
+ */
+final class GameActors {
+
+    // commands a mailbox runs before giving its thread to another game
+    private static final int BATCH = 16;
+
+    private final ConcurrentHashMap<Integer, Mailbox> mailboxes = new ConcurrentHashMap<>();
+    private final ExecutorService pool;
+    private final int capacity;
+
+    GameActors(int threads, int capacity) {
+        AtomicInteger count = new AtomicInteger();
+        this.pool = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "game-actor-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.capacity = capacity;
+    }
+
+    /**
+     * Queues a command behind the game's earlier commands.
+     *
+     * @return false if the game's mailbox is full and the command was not queued
+     */
+    boolean submit(int gameID, Runnable command) {
+        while (true) {
+            Mailbox mailbox = mailboxes.computeIfAbsent(gameID, Mailbox::new);
+            synchronized (mailbox) {
+                if (mailbox.retired) {
+                    continue;
+                }
+                if (mailbox.queue.size() >= capacity) {
+                    return false;
+                }
+                mailbox.queue.add(command);
+                if (mailbox.running) {
+                    return true;
+                }
+                mailbox.running = true;
+            }
+            try {
+                pool.execute(mailbox::drain);
+            } catch (RejectedExecutionException e) {
+                // shut down: take the command back so the caller's false is true
+                synchronized (mailbox) {
+                    mailbox.queue.removeLastOccurrence(command);
+                    mailbox.running = false;
+                }
+                return false;
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Stops taking new work and waits up to five seconds for queued commands to finish.
+     */
+    void shutdown() {
+        pool.shutdown();
+        try {
+            pool.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private final class Mailbox {
+        private final int gameID;
+        // all guarded by the mailbox's monitor
+        private final Deque<Runnable> queue = new ArrayDeque<>();
+        private boolean running;
+        private boolean retired;
+
+        Mailbox(int gameID) {
+            this.gameID = gameID;
+        }
+
+        void drain() {
+            while (true) {
+                for (int i = 0; i < BATCH; i++) {
+                    Runnable next;
+                    synchronized (this) {
+                        next = queue.poll();
+                        if (next == null) {
+                            running = false;
+                            retired = true;
+                            mailboxes.remove(gameID, this);
+                            return;
+                        }
+                    }
+                    try {
+                        next.run();
+                    } catch (RuntimeException e) {
+                        System.err.println("Command for game " + gameID + " failed: " + e);
+                    }
+                }
+                // still running: the next batch continues on the pool behind other games' work
+                try {
+                    pool.execute(this::drain);
+                    return;
+                } catch (RejectedExecutionException e) {
+                    // shutting down: finish the queue on this thread instead
+                }
+            }
+        }
+    }
+}
@@ -3,10 +3,10 @@ package server;
 import com.google.gson.Gson;
 import dataaccess.*;
 import model.GameData;
+import model.GamePage;
 import service.GameService;
 import spark.*;
 
-import java.util.Collection;
 import java.util.Map;
 
 public class GameHandler {
@@ -18,15 +18,32 @@ public class GameHandler {
         this.gameService = gameService;
     }
 
+    /**
+     * Lists one page of games. Optional query parameters: {@code cursor} (the
+     * {@code nextCursor} of the previous page), {@code limit}, {@code open=true} for games
+     * with a free seat, {@code mine=true} for the caller's games, and {@code prefix} to
+     * match the start of the game name.
+     */
     public Object handleListGames(Request req, Response res) {
         try {
             String authToken = req.headers("authorization");
 
-            Collection<GameData> allGames = gameService.listGames(authToken);
+            GameQuery query = new GameQuery(
+                    intParam(req, "cursor", 0),
+                    intParam(req, "limit", GameService.DEFAULT_PAGE_SIZE),
+                    Boolean.parseBoolean(req.queryParams("open")),
+                    null,
+                    req.queryParams("prefix"));
+            boolean mineOnly = Boolean.parseBoolean(req.queryParams("mine"));
+
+            GamePage page = gameService.listGameSummaries(authToken, query, mineOnly);
 
             res.status(200);
-            return "{ \"games\": " + gson.toJson(allGames) + " }";
+            return gson.toJson(page);
 
+        } catch (IllegalArgumentException e) {
+            res.status(400);
+            return "{ \"message\": \"Error: bad request\" }";
         } catch (UnauthorizedException e) {
             res.status(401);
             return "{ \"message\": \"Error: unauthorized\" }";
@@ -39,13 +56,40 @@ public class GameHandler {
         }
     }
 
+    private static int intParam(Request req, String name, int defaultValue) {
+        String value = req.queryParams(name);
+        return value == null ? defaultValue : Integer.parseInt(value);
+    }
+
+    public Object handleGetGame(Request req, Response res) {
+        try {
+            String authToken = req.headers("authorization");
+            int gameID = Integer.parseInt(req.params(":gameID"));
+
+            GameData game = gameService.getGame(authToken, gameID);
+
+            res.status(200);
+            return gson.toJson(game);
+
+        } catch (NumberFormatException | BadRequestException e) {
+            res.status(400);
+            return "{ \"message\": \"Error: bad request\" }";
+        } catch (UnauthorizedException e) {
+            res.status(401);
+            return "{ \"message\": \"Error: unauthorized\" }";
+        } catch (Exception e) {
+            res.status(500);
+            return String.format("{ \"message\": \"Error: %s\" }", e.getMessage());
+        }
+    }
+
     public Object handleCreateGame(Request req, Response res) {
         try {
             String authToken = req.headers("authorization");
-            record CreateGameRequest(String gameName) {}
+            record CreateGameRequest(String gameName, String fen) {}
             CreateGameRequest createReq = new Gson().fromJson(req.body(), CreateGameRequest.class);
 
-            int gameID = gameService.createGame(authToken, createReq.gameName());
+            int gameID = gameService.createGame(authToken, createReq.gameName(), createReq.fen());
 
             res.status(200);
             return String.format("{ \"gameID\": %d }", gameID);
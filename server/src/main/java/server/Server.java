@@ -6,8 +6,8 @@ import spark.*;
 
 public class Server {
     private UserDAO userDAO;
-    private GameDAO gameDAO;
-    private AuthDAO authDAO;
+    private CachingGameDAO gameDAO;
+    private CachingAuthDAO authDAO;
 
     private ClearService clearService;
     private ClearHandler clearHandler;
@@ -22,8 +22,8 @@ public class Server {
 
     public Server() {
         userDAO = new UserDAOSQL();
-        authDAO = new AuthDAOSQL();
-        gameDAO = new GameDAOSQL();
+        authDAO = new CachingAuthDAO(new AuthDAOSQL());
+        gameDAO = new CachingGameDAO(new GameDAOSQL());
 
         WebSocketHandler.initialize(authDAO, gameDAO, userDAO);
 
@@ -51,6 +51,7 @@ public class Server {
         Spark.post("/session", sessionHandler::handleLogin);
         Spark.delete("/session", sessionHandler::handleLogout);
         Spark.get("/game", gameHandler::handleListGames);
+        Spark.get("/game/:gameID", gameHandler::handleGetGame);
         Spark.post("/game", gameHandler::handleCreateGame);
         Spark.put("/game", gameHandler::handleJoinGame);
         Spark.put("/observe", gameHandler::handleObserve);
@@ -62,5 +63,13 @@ public class Server {
     public void stop() {
         Spark.stop();
         Spark.awaitStop();
+        WebSocketHandler.shutdown();
+        System.out.println("Auth cache on shutdown: " + authDAO.stats());
+        try {
+            gameDAO.close();
+        } catch (DataAccessException e) {
+            System.err.println("Could not write queued moves on shutdown: " + e.getMessage());
+        }
+        DatabaseManager.closePool();
     }
 }
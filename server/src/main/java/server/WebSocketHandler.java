@@ -15,9 +15,10 @@ import org.eclipse.jetty.websocket.api.annotations.OnWebSocketMessage;
 import org.eclipse.jetty.websocket.api.annotations.WebSocket;
 
 import java.io.IOException;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 @WebSocket
 public class WebSocketHandler {
@@ -26,12 +27,31 @@ public class WebSocketHandler {
     private static GameDAO gameDAO;
     private static UserDAO userDAO;
 
-    private static final Map<Session, Integer> SESSION_GAME_MAP = new HashMap<>();
+    // commands waiting per game before new ones are refused
+    private static final int MAILBOX_CAPACITY = 64;
 
-    public static void initialize(AuthDAO aDao, GameDAO gDao, UserDAO uDao) {
+    private static final Map<Session, Integer> SESSION_GAME_MAP = new ConcurrentHashMap<>();
+    // written by initialize and shutdown, read by Jetty threads
+    private static volatile GameActors actors;
+
+    public static synchronized void initialize(AuthDAO aDao, GameDAO gDao, UserDAO uDao) {
         authDAO = aDao;
         gameDAO = gDao;
         userDAO = uDao;
+        if (actors != null) {
+            actors.shutdown();
+        }
+        actors = new GameActors(Runtime.getRuntime().availableProcessors(), MAILBOX_CAPACITY);
+    }
+
+    /**
+     * Finishes queued commands and stops the game threads.
+     */
+    public static synchronized void shutdown() {
+        if (actors != null) {
+            actors.shutdown();
+            actors = null;
+        }
     }
 
     @OnWebSocketConnect
@@ -42,11 +62,7 @@ public class WebSocketHandler {
     @OnWebSocketClose
     public void onClose(Session session, int statusCode, String reason) {
         System.out.println("WebSocket close: " + session.getRemoteAddress());
-        Integer gameID = SESSION_GAME_MAP.get(session);
-        if (gameID != null) {
-            ConnectionManager.removeConnection(gameID, session);
-            SESSION_GAME_MAP.remove(session);
-        }
+        unregister(session);
     }
 
     @OnWebSocketMessage
@@ -59,11 +75,34 @@ public class WebSocketHandler {
             return;
         }
 
-        switch (cmd.getCommandType()) {
-            case CONNECT -> handleConnect(cmd, session);
-            case MAKE_MOVE -> handleMakeMove(cmd, session);
-            case LEAVE -> handleLeave(cmd, session);
-            case RESIGN -> handleResign(cmd, session);
+        Integer gameID = cmd.getGameID();
+        if (gameID == null) {
+            sendError(session, "Error: Missing gameID");
+            return;
+        }
+        GameActors current = actors;
+        if (current == null) {
+            sendError(session, "Error: Server is shutting down");
+            return;
+        }
+        // each game's commands run one at a time, in arrival order, off the Jetty thread
+        boolean queued = current.submit(gameID, () -> {
+            switch (cmd.getCommandType()) {
+                case CONNECT -> handleConnect(cmd, session);
+                case MAKE_MOVE -> handleMakeMove(cmd, session);
+                case LEAVE -> handleLeave(cmd, session);
+                case RESIGN -> handleResign(cmd, session);
+            }
+        });
+        if (!queued) {
+            sendError(session, "Error: Server busy, try again");
+        }
+    }
+
+    private static void unregister(Session session) {
+        Integer gameID = SESSION_GAME_MAP.remove(session);
+        if (gameID != null) {
+            ConnectionManager.removeConnection(gameID, session);
         }
     }
 
@@ -88,6 +127,12 @@ public class WebSocketHandler {
 
             SESSION_GAME_MAP.put(session, gameID);
             ConnectionManager.addConnection(gameID, session);
+            // the socket may have closed while this was queued; onClose has either seen
+            // the registration above or already run, so check again after registering
+            if (!session.isOpen()) {
+                unregister(session);
+                return;
+            }
 
             sendLoadGame(session, gameData);
 
@@ -124,6 +169,7 @@ public class WebSocketHandler {
             GameData gameData = gameDAO.getGame(gameID);
 
             ChessGame chessGame = gameData.game();
+            // only games stored before createGame always set a board; this write can race a join
             if (chessGame == null) {
                 chessGame = new ChessGame();
                 gameData = new GameData(
@@ -173,10 +219,11 @@ public class WebSocketHandler {
                     chessGame.isInCheckmate(ChessGame.TeamColor.BLACK) ||
                     chessGame.isInStalemate(ChessGame.TeamColor.WHITE) ||
                     chessGame.isInStalemate(ChessGame.TeamColor.BLACK)) {
+                gameDAO.recordMove(gameData, cmd.getMove());
+                vacateSeats(gameID, null);
                 gameData = new GameData(gameData.gameID(), null, null, gameData.gameName(), chessGame);
-                gameDAO.updateGame(gameData);
             } else {
-                gameDAO.updateGame(gameData);
+                gameDAO.recordMove(gameData, cmd.getMove());
             }
 
             broadcastLoadGame(gameData);
@@ -205,14 +252,7 @@ public class WebSocketHandler {
                 return;
             }
             String username = authData.username();
-            GameData gameData = gameDAO.getGame(gameID);
-
-            if (username.equals(gameData.whiteUsername())) {
-                gameData = new GameData(gameData.gameID(), null, gameData.blackUsername(), gameData.gameName(), gameData.game());
-            } else if (username.equals(gameData.blackUsername())) {
-                gameData = new GameData(gameData.gameID(), gameData.whiteUsername(), null, gameData.gameName(), gameData.game());
-            }
-            gameDAO.updateGame(gameData);
+            vacateSeats(gameID, username);
 
             ConnectionManager.removeConnection(gameID, session);
             SESSION_GAME_MAP.remove(session);
@@ -248,15 +288,7 @@ public class WebSocketHandler {
                 return;
             }
 
-            ChessGame chessGame = gameData.game();
-
-            GameData updated = new GameData(
-                    gameData.gameID(),
-                    null,null,
-                    gameData.gameName(),
-                    chessGame
-            );
-            gameDAO.updateGame(updated);
+            vacateSeats(gameID, null);
 
             broadcastNotificationToAll(gameID, username + " resigned the game. Game over.");
 
@@ -268,6 +300,27 @@ public class WebSocketHandler {
         }
     }
 
+    /*
+     * Moves and boards are only written by the game's actor, but REST joins change seats
+     * from request threads. Seats are therefore changed with updatePlayers, which never
+     * writes the board and fails if a join got in first; then this reads and tries again.
+     */
+    private void vacateSeats(int gameID, String username) throws DataAccessException {
+        while (true) {
+            GameData game = gameDAO.getGame(gameID);
+            String white = game.whiteUsername();
+            String black = game.blackUsername();
+            String newWhite = username == null || username.equals(white) ? null : white;
+            String newBlack = username == null || username.equals(black) ? null : black;
+            if (Objects.equals(white, newWhite) && Objects.equals(black, newBlack)) {
+                return;
+            }
+            if (gameDAO.updatePlayers(gameID, white, black, newWhite, newBlack)) {
+                return;
+            }
+        }
+    }
+
     private boolean isGameOver(GameData gameData) {
         return gameData.whiteUsername() == null && gameData.blackUsername() == null;
     }
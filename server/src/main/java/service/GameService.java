@@ -1,13 +1,20 @@
 package service;
 
+import chess.ChessGame;
 import dataaccess.*;
 import model.AuthData;
 import model.GameData;
+import model.GamePage;
+import model.GameSummary;
 
 import java.util.Collection;
+import java.util.List;
 
 public class GameService {
 
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 200;
+
     private final GameDAO gameDAO;
     private final AuthDAO authDAO;
 
@@ -32,8 +39,55 @@ public class GameService {
         return gameDAO.listGames();
     }
 
+    /**
+     * Lists one page of games for the lobby, without loading any board
+     *
+     * @param query    cursor, page size and filters; the page size is capped at {@link #MAX_PAGE_SIZE}
+     * @param mineOnly only games the caller plays in
+     */
+    public GamePage listGameSummaries(String authToken, GameQuery query, boolean mineOnly)
+            throws UnauthorizedException, DataAccessException {
+        AuthData authData = authenticate(authToken);
+        if (mineOnly) {
+            query = query.withPlayer(authData.username());
+        }
+        int pageSize = Math.min(query.limit(), MAX_PAGE_SIZE);
+
+        // one extra row says whether another page follows
+        List<GameSummary> games = gameDAO.listGameSummaries(query.withLimit(pageSize + 1));
+        if (games.size() <= pageSize) {
+            return new GamePage(games, null);
+        }
+        List<GameSummary> page = games.subList(0, pageSize);
+        return new GamePage(List.copyOf(page), page.get(pageSize - 1).gameID());
+    }
+
+    /**
+     * Loads one game with its full state
+     */
+    public GameData getGame(String authToken, int gameID)
+            throws UnauthorizedException, BadRequestException, DataAccessException {
+        authenticate(authToken);
+        try {
+            return gameDAO.getGame(gameID);
+        } catch (GameNotFoundException ex) {
+            // anything else is a storage failure and goes up as a 500
+            throw new BadRequestException("Game not found: " + gameID);
+        }
+    }
+
     public int createGame(String authToken, String gameName)
             throws UnauthorizedException, BadRequestException, DataAccessException {
+        return createGame(authToken, gameName, null);
+    }
+
+    /**
+     * Creates a game, optionally starting from a FEN position instead of the usual setup
+     *
+     * @param fen FEN record of the starting position, or null for the standard start
+     */
+    public int createGame(String authToken, String gameName, String fen)
+            throws UnauthorizedException, BadRequestException, DataAccessException {
         try {
             authDAO.getAuth(authToken);
         } catch (DataAccessException ex) {
@@ -44,27 +98,23 @@ public class GameService {
             throw new BadRequestException("No gameName provided.");
         }
 
-        int gameID;
-        do {
-            gameID = (int) (Math.random() * 9999) + 1;
-
-        } while (gameDAOAlreadyHas(gameID));
+        // stored with a board from the start, so the first move never has to write one
+        ChessGame startingPosition = new ChessGame();
+        if (fen != null) {
+            try {
+                startingPosition = ChessGame.fromFen(fen);
+            } catch (IllegalArgumentException ex) {
+                throw new BadRequestException("Invalid FEN: " + ex.getMessage());
+            }
+        }
 
-        GameData newGame = new GameData(gameID, null, null, gameName, null);
+        int gameID = gameDAO.allocateGameID();
+        GameData newGame = new GameData(gameID, null, null, gameName, startingPosition);
         gameDAO.createGame(newGame);
 
         return gameID;
     }
 
-    private boolean gameDAOAlreadyHas(int gameID) {
-        try {
-            gameDAO.getGame(gameID);
-            return true;
-        } catch (DataAccessException ex) {
-            return false;
-        }
-    }
-
     public boolean joinGame(String authToken, int gameID, String requestedColor)
             throws UnauthorizedException, DataAccessException, BadRequestException {
 
@@ -78,41 +128,47 @@ public class GameService {
             throw new UnauthorizedException("Invalid token");
         }
 
-        GameData game;
-        try {
-            game = gameDAO.getGame(gameID);
-        } catch (DataAccessException ex) {
-            throw new BadRequestException("Game not found: " + gameID);
-        }
-
         String username = authData.username();
-        String currentWhite = game.whiteUsername();
-        String currentBlack = game.blackUsername();
+        // only the seats are written, so moves made since the read are never put back
+        while (true) {
+            GameData game;
+            try {
+                game = gameDAO.getGame(gameID);
+            } catch (DataAccessException ex) {
+                throw new BadRequestException("Game not found: " + gameID);
+            }
 
-        if (requestedColor == null || requestedColor.trim().isEmpty()) {
-            throw new BadRequestException("Error: must use team color (black or white)");
-        }
+            String currentWhite = game.whiteUsername();
+            String currentBlack = game.blackUsername();
 
-        String color = requestedColor.toUpperCase();
-        if (!"WHITE".equals(color) && !"BLACK".equals(color)) {
-            throw new BadRequestException("Error: invalid team color");
-        }
+            if (requestedColor == null || requestedColor.trim().isEmpty()) {
+                throw new BadRequestException("Error: must use team color (black or white)");
+            }
 
-        if ("WHITE".equals(color)) {
-            if (currentWhite != null && !currentWhite.equals(username)) {
-                return false;
+            String color = requestedColor.toUpperCase();
+            if (!"WHITE".equals(color) && !"BLACK".equals(color)) {
+                throw new BadRequestException("Error: invalid team color");
             }
-            currentWhite = username;
-        } else {
-            if (currentBlack != null && !currentBlack.equals(username)) {
-                return false;
+
+            String newWhite = currentWhite;
+            String newBlack = currentBlack;
+            if ("WHITE".equals(color)) {
+                if (currentWhite != null && !currentWhite.equals(username)) {
+                    return false;
+                }
+                newWhite = username;
+            } else {
+                if (currentBlack != null && !currentBlack.equals(username)) {
+                    return false;
+                }
+                newBlack = username;
             }
-            currentBlack = username;
-        }
 
-        GameData updated = new GameData(game.gameID(), currentWhite, currentBlack, game.gameName(), game.game());
-        gameDAO.updateGame(updated);
-        return true;
+            if (gameDAO.updatePlayers(gameID, currentWhite, currentBlack, newWhite, newBlack)) {
+                return true;
+            }
+            // a seat changed since the read; look again
+        }
     }
 
     public void observeGame(String authToken, int gameID)
@@ -132,4 +188,14 @@ public class GameService {
         }
     }
 
+    private AuthData authenticate(String authToken) throws UnauthorizedException {
+        if (authToken == null || authToken.isEmpty()) {
+            throw new UnauthorizedException("No token provided");
+        }
+        try {
+            return authDAO.getAuth(authToken);
+        } catch (DataAccessException ex) {
+            throw new UnauthorizedException("Invalid token");
+        }
+    }
 }
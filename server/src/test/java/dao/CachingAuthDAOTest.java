@@ -0,0 +1,174 @@
+package dao;
+
+import dataaccess.CachingAuthDAO;
+import dataaccess.DataAccessException;
+import dataaccess.MemoryAuthDAO;
+import model.AuthData;
+import org.junit.jupiter.api.*;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+public class CachingAuthDAOTest {
+
+    private CountingAuthDAO backing;
+    private MutableClock clock;
+    private CachingAuthDAO authDAO;
+
+    @BeforeEach
+    void setup() {
+        backing = new CountingAuthDAO();
+        clock = new MutableClock();
+        authDAO = new CachingAuthDAO(backing, Duration.ofSeconds(60), 2, clock);
+    }
+
+    @Test
+    @DisplayName("getAuth - Positive (repeat lookups served from cache)")
+    void getAuthCached() throws DataAccessException {
+        backing.createAuth(new AuthData("alice", "tokenA"));
+
+        assertEquals("alice", authDAO.getAuth("tokenA").username());
+        assertEquals("alice", authDAO.getAuth("tokenA").username());
+        assertEquals("alice", authDAO.getAuth("tokenA").username());
+
+        assertEquals(1, backing.lookups, "Only the first lookup should reach the delegate");
+        CachingAuthDAO.CacheStats stats = authDAO.stats();
+        assertEquals(2, stats.hits());
+        assertEquals(1, stats.misses());
+    }
+
+    @Test
+    @DisplayName("getAuth - Negative (unknown token still throws)")
+    void getAuthUnknown() {
+        assertThrows(DataAccessException.class, () -> authDAO.getAuth("missing"));
+        assertThrows(DataAccessException.class, () -> authDAO.getAuth("missing"));
+        assertEquals(2, backing.lookups, "Misses should not be cached");
+    }
+
+    @Test
+    @DisplayName("getAuth - Positive (expired entry reloaded)")
+    void getAuthExpires() throws DataAccessException {
+        authDAO.createAuth(new AuthData("alice", "tokenA"));
+        authDAO.getAuth("tokenA");
+        assertEquals(0, backing.lookups);
+
+        clock.advance(Duration.ofSeconds(61));
+        authDAO.getAuth("tokenA");
+        assertEquals(1, backing.lookups, "Expired entry should be loaded again");
+        assertEquals(1, authDAO.stats().evictions());
+    }
+
+    @Test
+    @DisplayName("createAuth - Positive (oldest entry evicted when full)")
+    void sizeBounded() throws DataAccessException {
+        authDAO.createAuth(new AuthData("a", "t1"));
+        authDAO.createAuth(new AuthData("b", "t2"));
+        authDAO.createAuth(new AuthData("c", "t3"));
+
+        assertEquals(2, authDAO.stats().size());
+        authDAO.getAuth("t1");
+        assertEquals(1, backing.lookups, "Evicted token should come from the delegate");
+        authDAO.getAuth("t3");
+        assertEquals(1, backing.lookups);
+    }
+
+    @Test
+    @DisplayName("deleteAuth - Negative (deleted token no longer served)")
+    void deleteInvalidates() throws DataAccessException {
+        authDAO.createAuth(new AuthData("alice", "tokenA"));
+        authDAO.getAuth("tokenA");
+
+        authDAO.deleteAuth("tokenA");
+        assertThrows(DataAccessException.class, () -> authDAO.getAuth("tokenA"));
+    }
+
+    @Test
+    @DisplayName("deleteAuth - Negative (lookup racing the delete does not re-cache the token)")
+    void deleteRacesLookup() throws Exception {
+        backing.createAuth(new AuthData("alice", "tokenA"));
+        backing.loaded = new CountDownLatch(1);
+        backing.proceed = new CountDownLatch(1);
+
+        // the lookup reads the token from the delegate, then stalls before caching it
+        CompletableFuture<AuthData> lookup = CompletableFuture.supplyAsync(() -> {
+            try {
+                return authDAO.getAuth("tokenA");
+            } catch (DataAccessException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        assertTrue(backing.loaded.await(5, TimeUnit.SECONDS));
+        authDAO.deleteAuth("tokenA");
+        backing.proceed.countDown();
+
+        assertEquals("alice", lookup.get(5, TimeUnit.SECONDS).username());
+        backing.loaded = null;
+        assertEquals(0, authDAO.stats().size());
+        assertThrows(DataAccessException.class, () -> authDAO.getAuth("tokenA"));
+    }
+
+    @Test
+    @DisplayName("clear - Positive (cache emptied)")
+    void clearEmptiesCache() throws DataAccessException {
+        authDAO.createAuth(new AuthData("alice", "tokenA"));
+        authDAO.clear();
+
+        assertEquals(0, authDAO.stats().size());
+        assertThrows(DataAccessException.class, () -> authDAO.getAuth("tokenA"));
+    }
+
+    private static class CountingAuthDAO extends MemoryAuthDAO {
+        int lookups;
+        // when set, a lookup signals loaded after reading and waits for proceed
+        volatile CountDownLatch loaded;
+        volatile CountDownLatch proceed;
+
+        @Override
+        public AuthData getAuth(String authToken) throws DataAccessException {
+            lookups++;
+            AuthData auth = super.getAuth(authToken);
+            CountDownLatch gate = loaded;
+            if (gate != null) {
+                gate.countDown();
+                try {
+                    proceed.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return auth;
+        }
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant now = Instant.parse("2024-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
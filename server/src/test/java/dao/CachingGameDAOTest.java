@@ -0,0 +1,195 @@
+package dao;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
+import dataaccess.CachingGameDAO;
+import dataaccess.DataAccessException;
+import dataaccess.MemoryAuthDAO;
+import dataaccess.MemoryGameDAO;
+import model.AuthData;
+import model.GameData;
+import org.junit.jupiter.api.*;
+import service.GameService;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+public class CachingGameDAOTest {
+
+    private RecordingGameDAO backing;
+    private CachingGameDAO gameDAO;
+
+    @BeforeEach
+    void setup() throws DataAccessException {
+        backing = new RecordingGameDAO();
+        // long enough that only the background-flush test sees the writer run
+        gameDAO = new CachingGameDAO(backing, Duration.ofMinutes(1), Duration.ofMinutes(10));
+        gameDAO.createGame(new GameData(1, "white", "black", "game", new ChessGame()));
+    }
+
+    @AfterEach
+    void tearDown() throws DataAccessException {
+        gameDAO.close();
+    }
+
+    @Test
+    @DisplayName("recordMove - Positive (moves coalesced into one write)")
+    void movesCoalesced() throws DataAccessException, InvalidMoveException {
+        ChessMove first = move(2, 5, 4, 5);
+        ChessMove second = move(7, 5, 5, 5);
+        GameData afterFirst = play(gameDAO.getGame(1), first);
+        gameDAO.recordMove(afterFirst, first);
+        GameData afterSecond = play(gameDAO.getGame(1), second);
+        gameDAO.recordMove(afterSecond, second);
+
+        assertTrue(backing.batches.isEmpty(), "Moves should not be written before a flush");
+        assertEquals(afterSecond.game(), gameDAO.getGame(1).game(), "Resident game should have both moves");
+
+        gameDAO.flush();
+        assertEquals(List.of(List.of(first, second)), backing.batches);
+        assertEquals(afterSecond.game(), backing.getGame(1).game());
+    }
+
+    @Test
+    @DisplayName("getGame - Positive (callers get independent copies)")
+    void getGameCopies() throws DataAccessException, InvalidMoveException {
+        GameData mine = gameDAO.getGame(1);
+        mine.game().makeMove(move(2, 1, 3, 1));
+
+        assertEquals(new ChessGame(), gameDAO.getGame(1).game(), "Unrecorded changes should not leak into the cache");
+    }
+
+    @Test
+    @DisplayName("updateGame - Positive (queued moves written first)")
+    void updateWritesThrough() throws DataAccessException, InvalidMoveException {
+        ChessMove first = move(2, 4, 4, 4);
+        GameData afterFirst = play(gameDAO.getGame(1), first);
+        gameDAO.recordMove(afterFirst, first);
+
+        GameData ended = new GameData(1, null, null, "game", afterFirst.game());
+        gameDAO.updateGame(ended);
+
+        assertEquals(List.of("recordMoves", "updateGame"), backing.calls);
+        assertNull(backing.getGame(1).whiteUsername(), "Update should be durable when it returns");
+    }
+
+    @Test
+    @DisplayName("updatePlayers - Positive (join keeps a move recorded after its read)")
+    void joinKeepsConcurrentMove() throws Exception {
+        gameDAO.close();
+        ChessMove first = move(2, 5, 4, 5);
+        boolean[] moved = new boolean[1];
+        // plays a move right after the join's read, as a game actor could
+        gameDAO = new CachingGameDAO(backing, Duration.ofMinutes(1), Duration.ofMinutes(10)) {
+            @Override
+            public GameData getGame(int gameID) throws DataAccessException {
+                GameData game = super.getGame(gameID);
+                if (!moved[0]) {
+                    moved[0] = true;
+                    try {
+                        recordMove(play(super.getGame(gameID), first), first);
+                    } catch (InvalidMoveException e) {
+                        throw new IllegalStateException(e);
+                    }
+                }
+                return game;
+            }
+        };
+        gameDAO.createGame(new GameData(2, "white", null, "open", new ChessGame()));
+        MemoryAuthDAO authDAO = new MemoryAuthDAO();
+        authDAO.createAuth(new AuthData("joiner", "token"));
+
+        assertTrue(new GameService(gameDAO, authDAO).joinGame("token", 2, "BLACK"));
+
+        ChessGame expected = new ChessGame();
+        expected.makeMove(first);
+        GameData cached = gameDAO.getGame(2);
+        assertEquals("joiner", cached.blackUsername());
+        assertEquals(expected, cached.game(), "Cached board should keep the move");
+
+        gameDAO.flush();
+        GameData stored = backing.getGame(2);
+        assertEquals("joiner", stored.blackUsername());
+        assertEquals(expected, stored.game(), "Stored board should keep the move");
+    }
+
+    @Test
+    @DisplayName("updatePlayers - Negative (seat changed since the read)")
+    void updatePlayersStale() throws DataAccessException {
+        assertFalse(gameDAO.updatePlayers(1, "white", null, "white", "someone"));
+        assertEquals("black", gameDAO.getGame(1).blackUsername());
+        assertEquals("black", backing.getGame(1).blackUsername());
+    }
+
+    @Test
+    @DisplayName("recordMove - Positive (background flush within staleness window)")
+    void backgroundFlush() throws DataAccessException, InvalidMoveException, InterruptedException {
+        gameDAO.close();
+        gameDAO = new CachingGameDAO(backing, Duration.ofMillis(20), Duration.ofMinutes(10));
+
+        ChessMove first = move(1, 2, 3, 3);
+        gameDAO.recordMove(play(gameDAO.getGame(1), first), first);
+
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (backing.batches.isEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(List.of(List.of(first)), backing.batches);
+    }
+
+    @Test
+    @DisplayName("close - Positive (queued moves written on shutdown)")
+    void closeFlushes() throws DataAccessException, InvalidMoveException {
+        ChessMove first = move(2, 7, 3, 7);
+        gameDAO.recordMove(play(gameDAO.getGame(1), first), first);
+
+        gameDAO.close();
+        assertEquals(List.of(List.of(first)), backing.batches);
+    }
+
+    @Test
+    @DisplayName("clear - Negative (queued moves dropped)")
+    void clearDropsQueue() throws DataAccessException, InvalidMoveException {
+        ChessMove first = move(2, 8, 4, 8);
+        gameDAO.recordMove(play(gameDAO.getGame(1), first), first);
+
+        gameDAO.clear();
+        gameDAO.flush();
+        assertTrue(backing.batches.isEmpty());
+        assertEquals(0, gameDAO.residentGames());
+        assertThrows(DataAccessException.class, () -> gameDAO.getGame(1));
+    }
+
+    private static GameData play(GameData game, ChessMove move) throws InvalidMoveException {
+        game.game().makeMove(move);
+        return game;
+    }
+
+    private static ChessMove move(int fromRow, int fromCol, int toRow, int toCol) {
+        return new ChessMove(new ChessPosition(fromRow, fromCol), new ChessPosition(toRow, toCol), null);
+    }
+
+    private static class RecordingGameDAO extends MemoryGameDAO {
+        final List<List<ChessMove>> batches = new CopyOnWriteArrayList<>();
+        final List<String> calls = new CopyOnWriteArrayList<>();
+
+        @Override
+        public synchronized void recordMoves(GameData game, List<ChessMove> moves) throws DataAccessException {
+            batches.add(List.copyOf(moves));
+            calls.add("recordMoves");
+            super.updateGame(game);
+        }
+
+        @Override
+        public synchronized void updateGame(GameData game) throws DataAccessException {
+            calls.add("updateGame");
+            super.updateGame(game);
+        }
+    }
+}
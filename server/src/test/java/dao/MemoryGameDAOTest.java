@@ -2,10 +2,12 @@ package dao;
 
 import dataaccess.*;
 import model.GameData;
+import model.GameSummary;
 import org.junit.jupiter.api.*;
 import static org.junit.jupiter.api.Assertions.*;
 
 import java.util.Collection;
+import java.util.List;
 
 public class MemoryGameDAOTest {
 
@@ -122,5 +124,24 @@ public class MemoryGameDAOTest {
         assertEquals(0, gameDAO.listGames().size());
     }
 
+    @Test
+    @DisplayName("listGameSummaries - Positive (name prefix ignores case)")
+    void listGameSummariesPrefixIgnoresCase() throws DataAccessException {
+        gameDAO.createGame(new GameData(1, null, null, "Openings", null));
+        gameDAO.createGame(new GameData(2, null, null, "OPEN house", null));
+        gameDAO.createGame(new GameData(3, null, null, "Closed", null));
+
+        List<Integer> ids = gameDAO.listGameSummaries(new GameQuery(0, 10, false, null, "oPeN")).stream()
+                .map(GameSummary::gameID).toList();
+        assertEquals(List.of(1, 2), ids);
+    }
 
+    @Test
+    @DisplayName("allocateGameID - Positive")
+    void allocateGameIDPositive() {
+        int first = gameDAO.allocateGameID();
+        int second = gameDAO.allocateGameID();
+        assertTrue(first > 0);
+        assertNotEquals(first, second);
+    }
 }
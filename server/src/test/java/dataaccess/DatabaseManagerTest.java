@@ -0,0 +1,74 @@
+package dataaccess;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DatabaseManagerTest {
+
+    @Test
+    @DisplayName("getConnection - Positive (Pooled Connection Is Reused)")
+    void connectionReturnedToPool() throws DataAccessException, SQLException {
+        DatabaseManager.createDatabase();
+        try (Connection conn = DatabaseManager.getConnection()) {
+            assertTrue(conn.isValid(1));
+            assertTrue(DatabaseManager.poolStats().active() >= 1, "Borrowed connection should count as active");
+        }
+        long acquired = DatabaseManager.poolStats().acquired();
+
+        try (Connection conn = DatabaseManager.getConnection()) {
+            assertTrue(conn.isValid(1));
+        }
+        DatabaseManager.PoolStats stats = DatabaseManager.poolStats();
+        assertEquals(acquired + 1, stats.acquired());
+        assertTrue(stats.idle() >= 1, "Closed connection should go back to the pool");
+        assertTrue(stats.maxWaitNanos() >= stats.averageWaitNanos());
+    }
+
+    @Test
+    @DisplayName("closePool - Positive (Pool Restarts On Next Borrow)")
+    void poolRestartsAfterClose() throws DataAccessException, SQLException {
+        DatabaseManager.createDatabase();
+        DatabaseManager.closePool();
+        assertEquals(0, DatabaseManager.poolStats().active());
+
+        try (Connection conn = DatabaseManager.getConnection()) {
+            assertNotNull(conn.getCatalog(), "Pooled connections should have the database selected");
+            assertTrue(conn.isValid(1));
+        }
+    }
+
+    @Test
+    @DisplayName("prepareStatement - Positive (Same SQL Prepared Once Per Connection)")
+    void statementsCachedPerConnection() throws DataAccessException, SQLException {
+        DatabaseManager.createDatabase();
+        try (Connection conn = DatabaseManager.getConnection()) {
+            long before = serverPrepareCount(conn);
+            for (int i = 0; i < 5; i++) {
+                try (PreparedStatement stmt = conn.prepareStatement("SELECT ? + 1")) {
+                    stmt.setInt(1, i);
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        assertTrue(rs.next());
+                        assertEquals(i + 1, rs.getInt(1));
+                    }
+                }
+            }
+            assertEquals(1, serverPrepareCount(conn) - before, "Repeated SQL should reuse the cached statement");
+        }
+    }
+
+    private static long serverPrepareCount(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SHOW SESSION STATUS LIKE 'Com_stmt_prepare'")) {
+            assertTrue(rs.next());
+            return rs.getLong(2);
+        }
+    }
+}
@@ -2,10 +2,21 @@ package dataaccess;
 
 import chess.ChessBoard;
 import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
+import com.google.gson.Gson;
 import model.GameData;
+import model.GameSummary;
 import org.junit.jupiter.api.*;
 
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
 import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -51,6 +62,51 @@ public class GameDAOSQLTest {
     }
 
 
+    @Test
+    @DisplayName("allocateGameID - Positive (Unique Across Blocks And DAOs)")
+    void allocateGameIDUnique() throws DataAccessException {
+        GameDAOSQL first = new GameDAOSQL(GameDAOSQL.DEFAULT_SNAPSHOT_INTERVAL, 3);
+        GameDAOSQL second = new GameDAOSQL(GameDAOSQL.DEFAULT_SNAPSHOT_INTERVAL, 3);
+
+        Set<Integer> ids = new HashSet<>();
+        for (int i = 0; i < 10; i++) {
+            assertTrue(ids.add(first.allocateGameID()), "IDs from one DAO should not repeat");
+            assertTrue(ids.add(second.allocateGameID()), "DAOs should reserve separate blocks");
+        }
+    }
+
+    @Test
+    @DisplayName("allocateGameID - Negative (Never Hands Out An Existing ID)")
+    void allocateGameIDSkipsExisting() throws DataAccessException {
+        dao.createGame(new GameData(9_000_000, null, null, "picked at random", null));
+
+        int id = new GameDAOSQL().allocateGameID();
+        assertTrue(id > 9_000_000, "Sequence should start above existing games");
+        dao.createGame(new GameData(id, null, null, "allocated", null));
+    }
+
+    @Test
+    @DisplayName("allocateGameID - Negative (Refuses IDs Past The Int Range)")
+    void allocateGameIDExhausted() throws DataAccessException, SQLException {
+        try {
+            setIdSequence(Integer.MAX_VALUE);
+            GameDAOSQL nearTheTop = new GameDAOSQL();
+            assertEquals(Integer.MAX_VALUE, nearTheTop.allocateGameID());
+            assertThrows(DataAccessException.class, nearTheTop::allocateGameID);
+        } finally {
+            // the next DAO created moves it back above the largest existing gameID
+            setIdSequence(1);
+        }
+    }
+
+    private static void setIdSequence(long nextValue) throws DataAccessException, SQLException {
+        try (Connection conn = DatabaseManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement("UPDATE game_id_sequence SET nextValue=?")) {
+            stmt.setLong(1, nextValue);
+            stmt.executeUpdate();
+        }
+    }
+
     @Test
     @DisplayName("getGame - Positive (Game Exists)")
     void getGamePositive() throws DataAccessException {
@@ -64,7 +120,7 @@ public class GameDAOSQLTest {
     @Test
     @DisplayName("getGame - Negative (No Such ID => Exception)")
     void getGameNegative() {
-        assertThrows(DataAccessException.class, () -> dao.getGame(sampleGame.gameID()));
+        assertThrows(GameNotFoundException.class, () -> dao.getGame(sampleGame.gameID()));
     }
 
     @Test
@@ -86,6 +142,75 @@ public class GameDAOSQLTest {
         assertEquals(0, all.size(), "Should return an empty list when no games exist");
     }
 
+    @Test
+    @DisplayName("listGameSummaries - Positive (Names Only)")
+    void listGameSummariesPositive() throws DataAccessException {
+        dao.createGame(new GameData(202, "W2", "B2", "AnotherTitle", null));
+        dao.createGame(sampleGame);
+
+        assertEquals(List.of(new GameSummary(101, "WhiteUser", "BlackUser", "SampleTitle"),
+                        new GameSummary(202, "W2", "B2", "AnotherTitle")),
+                List.copyOf(dao.listGameSummaries()), "Summaries should be in gameID order");
+    }
+
+    @Test
+    @DisplayName("listGameSummaries - Positive (Keyset Page With Filters)")
+    void listGameSummariesFiltered() throws DataAccessException {
+        dao.createGame(sampleGame);
+        dao.createGame(new GameData(202, null, "BlackUser", "Open_game", null));
+        dao.createGame(new GameData(303, null, null, "Openings", null));
+        dao.createGame(new GameData(404, "Other", null, "Open", null));
+
+        assertEquals(List.of(202, 303), ids(dao.listGameSummaries(new GameQuery(101, 2, false, null, null))));
+        assertEquals(List.of(202, 303, 404), ids(dao.listGameSummaries(new GameQuery(0, 10, true, null, null))));
+        assertEquals(List.of(101, 202), ids(dao.listGameSummaries(new GameQuery(0, 10, false, "BlackUser", null))));
+        assertEquals(List.of(202, 303, 404), ids(dao.listGameSummaries(new GameQuery(0, 10, false, null, "Open"))));
+        assertEquals(List.of(202), ids(dao.listGameSummaries(new GameQuery(0, 10, false, null, "Open_"))),
+                "Underscore in a prefix should match literally");
+    }
+
+    @Test
+    @DisplayName("listGameSummaries - Positive (Name Prefix Ignores Case)")
+    void listGameSummariesPrefixIgnoresCase() throws DataAccessException {
+        dao.createGame(new GameData(202, null, null, "Openings", null));
+        dao.createGame(new GameData(303, null, null, "OPEN house", null));
+        dao.createGame(new GameData(404, null, null, "Closed", null));
+
+        assertEquals(List.of(202, 303), ids(dao.listGameSummaries(new GameQuery(0, 10, false, null, "oPeN"))),
+                "Prefix should match the same games as MemoryGameDAO");
+    }
+
+    @Test
+    @DisplayName("listGameSummaries - Negative (Cursor Past End => Empty)")
+    void listGameSummariesPastEnd() throws DataAccessException {
+        dao.createGame(sampleGame);
+        assertTrue(dao.listGameSummaries(new GameQuery(101, 10, false, null, null)).isEmpty());
+    }
+
+    @Test
+    @DisplayName("updatePlayers - Positive (Seats Change, Moves Kept)")
+    void updatePlayersPositive() throws DataAccessException, InvalidMoveException {
+        dao.createGame(new GameData(101, "WhiteUser", null, "SampleTitle", new ChessGame()));
+        GameData game = dao.getGame(101);
+        ChessMove move = new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null);
+        game.game().makeMove(move);
+        dao.recordMove(game, move);
+
+        assertTrue(dao.updatePlayers(101, "WhiteUser", null, "WhiteUser", "BlackUser"));
+        GameData fromDB = dao.getGame(101);
+        assertEquals("BlackUser", fromDB.blackUsername());
+        assertEquals(game.game(), fromDB.game(), "Logged move should survive a seat change");
+    }
+
+    @Test
+    @DisplayName("updatePlayers - Negative (Stale Seats Or Missing Game)")
+    void updatePlayersNegative() throws DataAccessException {
+        dao.createGame(sampleGame);
+        assertFalse(dao.updatePlayers(101, "WhiteUser", null, "WhiteUser", "Other"));
+        assertEquals("BlackUser", dao.getGame(101).blackUsername());
+        assertThrows(GameNotFoundException.class, () -> dao.updatePlayers(999, null, null, "a", "b"));
+    }
+
     @Test
     @DisplayName("updateGame - Positive (Modify Existing)")
     void updateGamePositive() throws DataAccessException {
@@ -123,4 +248,85 @@ public class GameDAOSQLTest {
         var results = dao.listGames();
         assertTrue(results.isEmpty(), "Should be empty after clear");
     }
+
+    @Test
+    @DisplayName("constructor - Positive (Migrates Legacy JSON Rows)")
+    void migratesLegacyJson() throws DataAccessException, SQLException {
+        String legacyJson = new Gson().toJson(sampleGame.game());
+        try (Connection conn = DatabaseManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(
+                     "INSERT INTO chess_table (gameID, gameName, gameState) VALUES (?, ?, ?)")) {
+            stmt.setInt(1, 404);
+            stmt.setString(2, "legacy");
+            stmt.setString(3, legacyJson);
+            stmt.executeUpdate();
+        }
+        assertEquals(sampleGame.game(), dao.getGame(404).game(), "Unmigrated JSON row should still be readable");
+
+        new GameDAOSQL();
+
+        try (Connection conn = DatabaseManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(
+                     "SELECT gameState, gameStateBinary FROM chess_table WHERE gameID = 404");
+             var rs = stmt.executeQuery()) {
+            assertTrue(rs.next());
+            assertNull(rs.getString("gameState"), "JSON should be cleared after migration");
+            assertEquals(GameStateCodec.ENCODED_LENGTH, rs.getBytes("gameStateBinary").length);
+        }
+        assertEquals(sampleGame.game(), dao.getGame(404).game(), "Migrated game should be unchanged");
+    }
+
+    @Test
+    @DisplayName("recordMove - Positive (Snapshot Plus Replayed Moves)")
+    void recordMoveReplaysTail() throws DataAccessException, SQLException, InvalidMoveException {
+        GameDAOSQL snapshotEvery4 = new GameDAOSQL(4);
+        snapshotEvery4.createGame(sampleGame);
+
+        ChessGame played = new ChessGame(sampleGame.game());
+        List<ChessMove> moves = List.of(
+                move(2, 5, 4, 5), move(7, 5, 5, 5), move(1, 7, 3, 6), move(8, 2, 6, 3),
+                move(1, 6, 4, 3), move(8, 6, 5, 3), move(1, 5, 1, 7));
+        for (ChessMove move : moves) {
+            played.makeMove(move);
+            snapshotEvery4.recordMove(new GameData(101, "WhiteUser", "BlackUser", "SampleTitle",
+                    new ChessGame(played)), move);
+        }
+
+        assertEquals(played, snapshotEvery4.getGame(101).game(), "Snapshot plus tail should rebuild the game");
+        assertEquals(played, snapshotEvery4.listGames().iterator().next().game(), "listGames should replay too");
+        try (Connection conn = DatabaseManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(
+                     "SELECT snapshotPly, (SELECT COUNT(*) FROM game_moves WHERE gameID = 101) FROM chess_table");
+             var rs = stmt.executeQuery()) {
+            assertTrue(rs.next());
+            assertEquals(4, rs.getInt(1), "Last snapshot should be at ply 4");
+            assertEquals(7, rs.getInt(2), "Every move should be logged");
+        }
+    }
+
+    @Test
+    @DisplayName("recordMoves - Positive (Batch, Then Rewrite Drops Stale Tail)")
+    void recordMovesThenUpdate() throws DataAccessException, InvalidMoveException {
+        dao.createGame(sampleGame);
+
+        ChessGame played = new ChessGame(sampleGame.game());
+        List<ChessMove> moves = List.of(move(2, 4, 4, 4), move(7, 4, 5, 4), move(2, 3, 4, 3));
+        for (ChessMove move : moves) {
+            played.makeMove(move);
+        }
+        dao.recordMoves(new GameData(101, "WhiteUser", "BlackUser", "SampleTitle", played), moves);
+        assertEquals(played, dao.getGame(101).game());
+
+        dao.updateGame(sampleGame);
+        assertEquals(sampleGame.game(), dao.getGame(101).game(),
+                "Moves past a rewritten snapshot should not be replayed");
+    }
+
+    private static List<Integer> ids(List<GameSummary> games) {
+        return games.stream().map(GameSummary::gameID).toList();
+    }
+
+    private static ChessMove move(int fromRow, int fromCol, int toRow, int toCol) {
+        return new ChessMove(new ChessPosition(fromRow, fromCol), new ChessPosition(toRow, toCol), null);
+    }
 }
@@ -0,0 +1,79 @@
+package dataaccess;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
+import com.google.gson.Gson;
+import org.junit.jupiter.api.*;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+public class GameStateCodecTest {
+
+    @Test
+    @DisplayName("encode - Positive (Starting Position Is 38 Bytes)")
+    void encodeStartingPosition() {
+        byte[] data = GameStateCodec.encode(new ChessGame());
+        assertEquals(GameStateCodec.ENCODED_LENGTH, data.length);
+        assertEquals(GameStateCodec.VERSION, data[0]);
+        assertTrue(data.length * 20 < new Gson().toJson(new ChessGame()).length(),
+                "Binary form should be far smaller than JSON");
+    }
+
+    @Test
+    @DisplayName("decode - Positive (Round Trip Keeps Turn, Rights and En Passant)")
+    void roundTrip() throws InvalidMoveException, DataAccessException {
+        ChessGame game = new ChessGame();
+        play(game, 2, 5, 4, 5);   // e4
+        play(game, 7, 1, 6, 1);   // a6
+        play(game, 4, 5, 5, 5);   // e5
+        play(game, 8, 1, 7, 1);   // Ra7, black loses queenside castling
+        play(game, 1, 5, 2, 5);   // Ke2, white loses castling
+        play(game, 7, 6, 5, 6);   // f5, en passant available on f6
+
+        ChessGame decoded = GameStateCodec.decode(GameStateCodec.encode(game));
+        assertEquals(game, decoded);
+        assertEquals(game.getPositionKey(), decoded.getPositionKey());
+        assertEquals(ChessGame.TeamColor.WHITE, decoded.getTeamTurn());
+        assertEquals(new ChessPosition(6, 6), decoded.getEnPassantSquare());
+        assertEquals(game.getCastlingRights(), decoded.getCastlingRights());
+        assertEquals(game.toFen(), decoded.toFen(), "Move counters should survive the round trip");
+    }
+
+    @Test
+    @DisplayName("decode - Positive (Version 1 Without Move Counters)")
+    void decodeVersion1() throws DataAccessException {
+        ChessGame game = ChessGame.fromFen("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R b KQkq - 7 20");
+        byte[] version1 = Arrays.copyOf(GameStateCodec.encode(game), 35);
+        version1[0] = 1;
+
+        ChessGame decoded = GameStateCodec.decode(version1);
+        assertEquals(game, decoded);
+        assertEquals(0, decoded.getHalfmoveClock());
+        assertEquals(1, decoded.getFullmoveNumber());
+    }
+
+    @Test
+    @DisplayName("decode - Negative (Unknown Version => Exception)")
+    void decodeUnknownVersion() {
+        byte[] data = GameStateCodec.encode(new ChessGame());
+        data[0] = 99;
+        assertThrows(DataAccessException.class, () -> GameStateCodec.decode(data));
+    }
+
+    @Test
+    @DisplayName("decode - Negative (Truncated Data => Exception)")
+    void decodeTruncated() {
+        assertThrows(DataAccessException.class, () -> GameStateCodec.decode(new byte[]{GameStateCodec.VERSION, 0}));
+        assertThrows(DataAccessException.class, () -> GameStateCodec.decode(new byte[0]));
+    }
+
+    private static void play(ChessGame game, int fromRow, int fromCol, int toRow, int toCol)
+            throws InvalidMoveException {
+        game.makeMove(new ChessMove(new ChessPosition(fromRow, fromCol), new ChessPosition(toRow, toCol), null));
+    }
+}
@@ -0,0 +1,150 @@
+package server;
+
+import org.junit.jupiter.api.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+public class GameActorsTest {
+
+    private GameActors actors;
+
+    @BeforeEach
+    void setup() {
+        actors = new GameActors(4, 1000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        actors.shutdown();
+    }
+
+    @Test
+    @DisplayName("submit - Positive (one game's commands run in order, one at a time)")
+    void runsInOrder() throws InterruptedException {
+        List<Integer> ran = new ArrayList<>();
+        AtomicInteger inside = new AtomicInteger();
+        AtomicInteger overlaps = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(500);
+        for (int i = 0; i < 500; i++) {
+            int n = i;
+            assertTrue(actors.submit(1, () -> {
+                if (inside.incrementAndGet() > 1) {
+                    overlaps.incrementAndGet();
+                }
+                // no lock: the actor is what keeps this list safe
+                ran.add(n);
+                inside.decrementAndGet();
+                done.countDown();
+            }));
+        }
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(0, overlaps.get());
+        for (int i = 0; i < 500; i++) {
+            assertEquals(i, ran.get(i));
+        }
+    }
+
+    @Test
+    @DisplayName("submit - Positive (different games run in parallel)")
+    void gamesRunInParallel() throws InterruptedException {
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        CountDownLatch done = new CountDownLatch(2);
+        for (int gameID = 1; gameID <= 2; gameID++) {
+            actors.submit(gameID, () -> {
+                bothStarted.countDown();
+                try {
+                    // only returns if the other game is running at the same time
+                    if (bothStarted.await(5, TimeUnit.SECONDS)) {
+                        done.countDown();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    @DisplayName("submit - Positive (a failing command does not stop the game)")
+    void survivesFailure() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(1);
+        actors.submit(1, () -> {
+            throw new IllegalStateException("boom");
+        });
+        actors.submit(1, done::countDown);
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    @DisplayName("submit - Negative (full mailbox refuses commands)")
+    void fullMailbox() throws InterruptedException {
+        actors.shutdown();
+        actors = new GameActors(2, 2);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        assertTrue(actors.submit(1, () -> {
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        assertTrue(actors.submit(1, () -> { }));
+        assertTrue(actors.submit(1, () -> { }));
+        assertFalse(actors.submit(1, () -> { }));
+        // another game has its own mailbox
+        assertTrue(actors.submit(2, () -> { }));
+
+        release.countDown();
+        CountDownLatch done = new CountDownLatch(1);
+        for (int i = 0; i < 100 && !actors.submit(1, done::countDown); i++) {
+            Thread.sleep(10);
+        }
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    @DisplayName("shutdown - Positive (queued commands past one batch still run)")
+    void shutdownDrains() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger ran = new AtomicInteger();
+        actors.submit(1, () -> {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        for (int i = 0; i < 100; i++) {
+            actors.submit(1, ran::incrementAndGet);
+        }
+
+        Thread stopper = new Thread(actors::shutdown);
+        stopper.start();
+        // let shutdown close the pool before the first batch ends
+        Thread.sleep(100);
+        release.countDown();
+        stopper.join(10_000);
+
+        assertEquals(100, ran.get());
+    }
+
+    @Test
+    @DisplayName("submit - Negative (refused after shutdown)")
+    void refusedAfterShutdown() {
+        actors.shutdown();
+        assertFalse(actors.submit(1, () -> { }));
+        assertFalse(actors.submit(1, () -> { }), "A refused command must not leave the mailbox stuck");
+    }
+}
@@ -3,6 +3,8 @@ package service;
 import com.google.gson.Gson;
 import dataaccess.*;
 import model.GameData;
+import model.GamePage;
+import model.GameSummary;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -63,6 +65,38 @@ public class GameHandlerTest {
         assertTrue(json.contains("Error: unauthorized"), "Expected unauthorized error message");
     }
 
+    @Test
+    @DisplayName("handleListGames - Negative (bad page size => bad request)")
+    void handleListGamesBadLimit() {
+        req.setHeader("authorization", "validToken");
+        req.setQueryParam("limit", "0");
+
+        gameHandler.handleListGames(req, res);
+        assertEquals(400, res.getStatus(), "Expected HTTP status 400 for a zero page size");
+    }
+
+    @Test
+    @DisplayName("handleGetGame - Positive")
+    void handleGetGamePositive() {
+        req.setHeader("authorization", "validToken");
+        req.setParam(":gameID", "123");
+
+        Object result = gameHandler.handleGetGame(req, res);
+
+        assertEquals(200, res.getStatus(), "Expected HTTP status 200");
+        assertTrue(result.toString().contains("\"gameName\":\"TestGame\""), "JSON should contain the game");
+    }
+
+    @Test
+    @DisplayName("handleGetGame - Negative (unknown game => bad request)")
+    void handleGetGameNegative() {
+        req.setHeader("authorization", "validToken");
+        req.setParam(":gameID", "999");
+
+        gameHandler.handleGetGame(req, res);
+        assertEquals(400, res.getStatus(), "Expected HTTP status 400 for a missing game");
+    }
+
     private static class DummyGameService extends GameService {
         private Collection<GameData> dummyGames;
         private boolean throwUnauthorized = false;
@@ -83,10 +117,28 @@ public class GameHandlerTest {
             }
             return dummyGames;
         }
+
+        @Override
+        public GamePage listGameSummaries(String authToken, GameQuery query, boolean mineOnly)
+                throws UnauthorizedException {
+            return new GamePage(listGames(authToken).stream().map(GameSummary::of).toList(), null);
+        }
+
+        @Override
+        public GameData getGame(String authToken, int gameID) throws UnauthorizedException, BadRequestException {
+            for (GameData game : listGames(authToken)) {
+                if (game.gameID() == gameID) {
+                    return game;
+                }
+            }
+            throw new BadRequestException("Game not found: " + gameID);
+        }
     }
 
     private static class TestRequest extends Request {
         private Map<String, String> headerMap = new HashMap<>();
+        private Map<String, String> paramMap = new HashMap<>();
+        private Map<String, String> queryMap = new HashMap<>();
         private String body = "";
 
         public void setHeader(String key, String value) {
@@ -98,6 +150,24 @@ public class GameHandlerTest {
             return headerMap.get(header);
         }
 
+        public void setParam(String key, String value) {
+            paramMap.put(key, value);
+        }
+
+        @Override
+        public String params(String param) {
+            return paramMap.get(param);
+        }
+
+        public void setQueryParam(String key, String value) {
+            queryMap.put(key, value);
+        }
+
+        @Override
+        public String queryParams(String queryParam) {
+            return queryMap.get(queryParam);
+        }
+
         public void setBody(String body) {
             this.body = body;
         }
@@ -3,11 +3,15 @@ package service;
 import dataaccess.*;
 import model.AuthData;
 import model.GameData;
+import model.GamePage;
+import model.GameSummary;
 import org.junit.jupiter.api.*;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 
 public class GameServiceTest {
 
@@ -54,6 +58,90 @@ public class GameServiceTest {
         assertEquals("TestGame", gd.gameName());
     }
 
+    @Test
+    @DisplayName("createGame - Positive (from FEN)")
+    void createGameFromFen() throws UnauthorizedException, BadRequestException, DataAccessException {
+        String fen = "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1";
+        int id = gameService.createGame(validToken, "Endgame", fen);
+
+        GameData gd = gameDAO.getGame(id);
+        assertNotNull(gd.game());
+        assertEquals(fen, gd.game().toFen());
+    }
+
+    @Test
+    @DisplayName("listGameSummaries - Positive (names without state)")
+    void listGameSummariesPositive() throws UnauthorizedException, BadRequestException, DataAccessException {
+        int id = gameService.createGame(validToken, "Lobby");
+
+        GamePage page = gameService.listGameSummaries(validToken, new GameQuery(0, 10, false, null, null), false);
+        assertEquals(List.of(new GameSummary(id, null, null, "Lobby")), page.games());
+        assertNull(page.nextCursor(), "A single page should have no cursor");
+    }
+
+    @Test
+    @DisplayName("listGameSummaries - Positive (pages follow the cursor)")
+    void listGameSummariesPaged() throws UnauthorizedException, BadRequestException, DataAccessException {
+        for (int i = 0; i < 5; i++) {
+            gameService.createGame(validToken, "Game" + i);
+        }
+        gameService.joinGame(validToken, gameService.createGame(validToken, "Mine"), "WHITE");
+
+        List<GameSummary> seen = new ArrayList<>();
+        GamePage page = gameService.listGameSummaries(validToken, new GameQuery(0, 4, false, null, null), false);
+        seen.addAll(page.games());
+        assertEquals(4, page.games().size());
+        page = gameService.listGameSummaries(validToken, new GameQuery(page.nextCursor(), 4, false, null, null), false);
+        seen.addAll(page.games());
+        assertNull(page.nextCursor());
+
+        assertEquals(6, seen.size());
+        assertEquals(6, seen.stream().map(GameSummary::gameID).distinct().count(), "Pages should not overlap");
+
+        GamePage mine = gameService.listGameSummaries(validToken, new GameQuery(0, 10, false, null, null), true);
+        assertEquals(List.of("Mine"), mine.games().stream().map(GameSummary::gameName).toList());
+    }
+
+    @Test
+    @DisplayName("getGame - Positive (full state)")
+    void getGamePositive() throws UnauthorizedException, BadRequestException, DataAccessException {
+        String fen = "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1";
+        int id = gameService.createGame(validToken, "Detail", fen);
+
+        GameData gd = gameService.getGame(validToken, id);
+        assertEquals("Detail", gd.gameName());
+        assertEquals(fen, gd.game().toFen());
+    }
+
+    @Test
+    @DisplayName("getGame - Negative (unknown game => bad request)")
+    void getGameNegative() {
+        assertThrows(BadRequestException.class, () -> gameService.getGame(validToken, 4242));
+        assertThrows(UnauthorizedException.class, () -> gameService.getGame(invalidToken, 4242));
+    }
+
+    @Test
+    @DisplayName("getGame - Negative (storage failure is not a bad request)")
+    void getGameStorageFailure() {
+        GameService failing = new GameService(new MemoryGameDAO() {
+            @Override
+            public GameData getGame(int gameID) throws DataAccessException {
+                throw new DataAccessException("Connection is not available");
+            }
+        }, authDAO);
+
+        DataAccessException ex = assertThrows(DataAccessException.class, () -> failing.getGame(validToken, 1));
+        assertFalse(ex instanceof GameNotFoundException);
+    }
+
+    @Test
+    @DisplayName("createGame - Negative (malformed FEN)")
+    void createGameBadFen() {
+        assertThrows(BadRequestException.class, () -> {
+            gameService.createGame(validToken, "Broken", "not a fen");
+        });
+    }
+
     @Test
     @DisplayName("createGame - Negative (invalid token)")
     void createGameNegative() {
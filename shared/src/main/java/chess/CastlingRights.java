@@ -0,0 +1,100 @@
+package chess;
+
+import java.util.Arrays;
+
+/**
+ * Castling rights as a 4-bit set, one bit per king and side. A right is lost for good
+ * once its king or rook moves or the rook is captured, which {@link #afterMove} applies
+ * with a single mask per square, so rights never need a scan of the move history.
+ */
+public final class CastlingRights {
+
+    public static final int NONE = 0;
+    public static final int WHITE_KINGSIDE = 1;
+    public static final int WHITE_QUEENSIDE = 2;
+    public static final int BLACK_KINGSIDE = 4;
+    public static final int BLACK_QUEENSIDE = 8;
+    public static final int ALL = 15;
+
+    // indexed by the bit number of a single right
+    private static final int[] KING_FROM = {4, 4, 60, 60};
+    private static final int[] KING_TO = {6, 2, 62, 58};
+    private static final int[] ROOK_FROM = {7, 0, 63, 56};
+
+    // rights that survive a move from or to each square
+    private static final int[] KEEP = new int[64];
+
+    static {
+        Arrays.fill(KEEP, ALL);
+        KEEP[4] = ALL & ~(WHITE_KINGSIDE | WHITE_QUEENSIDE);
+        KEEP[7] = ALL & ~WHITE_KINGSIDE;
+        KEEP[0] = ALL & ~WHITE_QUEENSIDE;
+        KEEP[60] = ALL & ~(BLACK_KINGSIDE | BLACK_QUEENSIDE);
+        KEEP[63] = ALL & ~BLACK_KINGSIDE;
+        KEEP[56] = ALL & ~BLACK_QUEENSIDE;
+    }
+
+    private CastlingRights() {
+    }
+
+    /**
+     * @return both rights of one team
+     */
+    public static int of(ChessGame.TeamColor color) {
+        return color == ChessGame.TeamColor.WHITE
+                ? WHITE_KINGSIDE | WHITE_QUEENSIDE
+                : BLACK_KINGSIDE | BLACK_QUEENSIDE;
+    }
+
+    /**
+     * @return the rights left after a move between two squares
+     */
+    public static int afterMove(int rights, int from, int to) {
+        return rights & KEEP[from] & KEEP[to];
+    }
+
+    /**
+     * Works out rights from piece placement alone: a right is assumed for every king
+     * and rook still on their starting squares. Used when a game is handed a board
+     * with no move history.
+     */
+    public static int fromBoard(ChessBoard board) {
+        int rights = NONE;
+        for (int i = 0; i < 4; i++) {
+            ChessGame.TeamColor color = i < 2 ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK;
+            if (isPiece(board.getPiece(KING_FROM[i]), color, ChessPiece.PieceType.KING)
+                    && isPiece(board.getPiece(ROOK_FROM[i]), color, ChessPiece.PieceType.ROOK)) {
+                rights |= 1 << i;
+            }
+        }
+        return rights;
+    }
+
+    /**
+     * @param right a single right, such as {@link #WHITE_KINGSIDE}
+     * @return the square the king castles from
+     */
+    public static int kingFrom(int right) {
+        return KING_FROM[Integer.numberOfTrailingZeros(right)];
+    }
+
+    /**
+     * @param right a single right
+     * @return the square the king lands on
+     */
+    public static int kingTo(int right) {
+        return KING_TO[Integer.numberOfTrailingZeros(right)];
+    }
+
+    /**
+     * @param right a single right
+     * @return the square the castling rook starts on
+     */
+    public static int rookFrom(int right) {
+        return ROOK_FROM[Integer.numberOfTrailingZeros(right)];
+    }
+
+    private static boolean isPiece(ChessPiece piece, ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        return piece != null && piece.getTeamColor() == color && piece.getPieceType() == type;
+    }
+}
@@ -6,15 +6,53 @@ import java.util.Arrays;
  * <p>
  * Note: You can add to this class, but you may not alter
  * signature of the existing methods.
+ * <p>
+ * Pieces are kept in two forms: the {@code boardArray} grid, which is what Gson
+ * persists, and a set of bitboards (one {@code long} per colour/piece type plus
+ * occupancy masks) used for attack and move queries. Square {@code 0} is a1
+ * (row 1, column 1) and square {@code 63} is h8.
  */
 public class ChessBoard {
+    private static final ChessGame.TeamColor[] TEAM_COLORS = ChessGame.TeamColor.values();
+    private static final ChessPiece.PieceType[] PIECE_TYPES = ChessPiece.PieceType.values();
+    // FEN letter for each piece index: white pieces upper case, black lower case
+    private static final String FEN_PIECES = "KQBNRPkqbnrp";
+
     private ChessPiece[][] boardArray;
 
+    // Derived from boardArray. Left null until first use so that boards created by
+    // Gson (which fills boardArray reflectively) are rebuilt on demand.
+    private transient long[] pieceBitboards;
+    private transient long[] teamBitboards;
+    private transient long occupiedBitboard;
+    private transient int[] kingSquares;
+    private transient long zobristKey;
+
     public ChessBoard() {
         boardArray = new ChessPiece[8][8];
 
     }
 
+    /**
+     * Creates an independent copy of another board. Pieces are immutable, so only the
+     * grid and the derived masks are copied.
+     *
+     * @param other the board to copy
+     */
+    public ChessBoard(ChessBoard other) {
+        boardArray = new ChessPiece[8][];
+        for (int r = 0; r < 8; r++) {
+            boardArray[r] = other.boardArray[r].clone();
+        }
+        if (other.pieceBitboards != null) {
+            pieceBitboards = other.pieceBitboards.clone();
+            teamBitboards = other.teamBitboards.clone();
+            occupiedBitboard = other.occupiedBitboard;
+            kingSquares = other.kingSquares.clone();
+            zobristKey = other.zobristKey;
+        }
+    }
+
     /**
      * Adds a chess piece to the chessboard
      *
@@ -24,6 +62,11 @@ public class ChessBoard {
     public void addPiece(ChessPosition position, ChessPiece piece) {
         int rowIndex = position.getRow() - 1;
         int colIndex = position.getColumn() - 1;
+        if (pieceBitboards != null) {
+            int square = rowIndex * 8 + colIndex;
+            clearBits(boardArray[rowIndex][colIndex], square);
+            setBits(piece, square);
+        }
         boardArray[rowIndex][colIndex] = piece;
     }
 
@@ -40,6 +83,57 @@ public class ChessBoard {
         return boardArray[rowIndex][colIndex];
     }
 
+    /**
+     * Gets a chess piece by square index
+     *
+     * @param square square index, 0 (a1) through 63 (h8)
+     * @return the piece on that square, or null if it is empty
+     */
+    public ChessPiece getPiece(int square) {
+        return boardArray[square >>> 3][square & 7];
+    }
+
+    /**
+     * @return bitboard of every square holding the given piece
+     */
+    public long getPieceBitboard(ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        ensureBitboards();
+        return pieceBitboards[pieceIndex(color, type)];
+    }
+
+    /**
+     * @return bitboard of every square holding a piece of the given team
+     */
+    public long getTeamBitboard(ChessGame.TeamColor color) {
+        ensureBitboards();
+        return teamBitboards[color.ordinal()];
+    }
+
+    /**
+     * @return bitboard of every occupied square
+     */
+    public long getOccupiedBitboard() {
+        ensureBitboards();
+        return occupiedBitboard;
+    }
+
+    /**
+     * @return square index of the given team's king, or -1 if it has none
+     */
+    public int getKingSquare(ChessGame.TeamColor color) {
+        ensureBitboards();
+        return kingSquares[color.ordinal()];
+    }
+
+    /**
+     * @return Zobrist key of the pieces on the board (see {@link Zobrist}), kept up to
+     * date on every {@link #addPiece}. Side to move is folded in by {@link ChessGame}.
+     */
+    public long getZobristKey() {
+        ensureBitboards();
+        return zobristKey;
+    }
+
     /**
      * Sets the board to the default starting board
      * (How the game of chess normally starts)
@@ -49,30 +143,168 @@ public class ChessBoard {
             Arrays.fill(boardArray[r], null);
         }
 
-        boardArray[0][0] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK);
-        boardArray[0][1] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT);
-        boardArray[0][2] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.BISHOP);
-        boardArray[0][3] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.QUEEN);
-        boardArray[0][4] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING);
-        boardArray[0][5] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.BISHOP);
-        boardArray[0][6] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT);
-        boardArray[0][7] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK);
+        boardArray[0][0] = ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK);
+        boardArray[0][1] = ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT);
+        boardArray[0][2] = ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.BISHOP);
+        boardArray[0][3] = ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.QUEEN);
+        boardArray[0][4] = ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING);
+        boardArray[0][5] = ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.BISHOP);
+        boardArray[0][6] = ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT);
+        boardArray[0][7] = ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK);
 
         for (int c = 0; c < 8; c++) {
-            boardArray[1][c] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN);
+            boardArray[1][c] = ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN);
         }
 
-        boardArray[7][0] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK);
-        boardArray[7][1] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT);
-        boardArray[7][2] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.BISHOP);
-        boardArray[7][3] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.QUEEN);
-        boardArray[7][4] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING);
-        boardArray[7][5] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.BISHOP);
-        boardArray[7][6] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT);
-        boardArray[7][7] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK);
+        boardArray[7][0] = ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK);
+        boardArray[7][1] = ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT);
+        boardArray[7][2] = ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.BISHOP);
+        boardArray[7][3] = ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.QUEEN);
+        boardArray[7][4] = ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING);
+        boardArray[7][5] = ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.BISHOP);
+        boardArray[7][6] = ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT);
+        boardArray[7][7] = ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK);
 
         for (int c = 0; c < 8; c++) {
-            boardArray[6][c] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN);
+            boardArray[6][c] = ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN);
+        }
+        pieceBitboards = null;
+    }
+
+    /**
+     * Builds a board from the piece-placement field of a FEN record, such as
+     * {@code rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR}. Ranks run from 8 down to 1
+     * and the grid is filled directly; bitboards are built on first use.
+     *
+     * @param placement FEN piece placement
+     * @return the board
+     * @throws IllegalArgumentException if the placement is malformed
+     */
+    public static ChessBoard fromFen(String placement) {
+        ChessBoard board = new ChessBoard();
+        int row = 7;
+        int col = 0;
+        for (int i = 0; i < placement.length(); i++) {
+            char c = placement.charAt(i);
+            if (c == '/') {
+                if (col != 8 || row == 0) {
+                    throw new IllegalArgumentException("Bad FEN rank " + (row + 1) + " in " + placement);
+                }
+                row--;
+                col = 0;
+            } else if (c >= '1' && c <= '8') {
+                col += c - '0';
+            } else {
+                int index = FEN_PIECES.indexOf(c);
+                if (index < 0 || col > 7) {
+                    throw new IllegalArgumentException("Bad FEN piece '" + c + "' in " + placement);
+                }
+                board.boardArray[row][col++] = pieceFromIndex(index);
+            }
+            if (col > 8) {
+                throw new IllegalArgumentException("Bad FEN rank " + (row + 1) + " in " + placement);
+            }
+        }
+        if (row != 0 || col != 8) {
+            throw new IllegalArgumentException("FEN placement must have 8 full ranks: " + placement);
+        }
+        return board;
+    }
+
+    /**
+     * @return the piece-placement field of a FEN record for this board
+     */
+    public String toFen() {
+        StringBuilder fen = new StringBuilder(72);
+        for (int row = 7; row >= 0; row--) {
+            int empty = 0;
+            for (int col = 0; col < 8; col++) {
+                ChessPiece piece = boardArray[row][col];
+                if (piece == null) {
+                    empty++;
+                    continue;
+                }
+                if (empty > 0) {
+                    fen.append(empty);
+                    empty = 0;
+                }
+                fen.append(FEN_PIECES.charAt(pieceIndex(piece.getTeamColor(), piece.getPieceType())));
+            }
+            if (empty > 0) {
+                fen.append(empty);
+            }
+            if (row > 0) {
+                fen.append('/');
+            }
+        }
+        return fen.toString();
+    }
+
+    /**
+     * @return the square index (0 for a1 through 63 for h8) of a position
+     */
+    public static int squareIndex(ChessPosition position) {
+        return (position.getRow() - 1) * 8 + (position.getColumn() - 1);
+    }
+
+    /**
+     * @return index into the per-piece bitboards: six piece types for white, then six for black
+     */
+    public static int pieceIndex(ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        return color.ordinal() * 6 + type.ordinal();
+    }
+
+    /**
+     * @return the piece for an index produced by {@link #pieceIndex}
+     */
+    public static ChessPiece pieceFromIndex(int index) {
+        return ChessPiece.of(TEAM_COLORS[index / 6], PIECE_TYPES[index % 6]);
+    }
+
+    private void ensureBitboards() {
+        if (pieceBitboards != null) {
+            return;
+        }
+        pieceBitboards = new long[12];
+        teamBitboards = new long[2];
+        occupiedBitboard = 0L;
+        kingSquares = new int[]{-1, -1};
+        zobristKey = 0L;
+        for (int square = 0; square < 64; square++) {
+            setBits(getPiece(square), square);
+        }
+    }
+
+    private void setBits(ChessPiece piece, int square) {
+        if (piece == null) {
+            return;
+        }
+        long bit = 1L << square;
+        int index = pieceIndex(piece.getTeamColor(), piece.getPieceType());
+        pieceBitboards[index] |= bit;
+        teamBitboards[piece.getTeamColor().ordinal()] |= bit;
+        occupiedBitboard |= bit;
+        zobristKey ^= Zobrist.pieceSquare(index, square);
+        if (piece.getPieceType() == ChessPiece.PieceType.KING) {
+            kingSquares[piece.getTeamColor().ordinal()] = square;
+        }
+    }
+
+    private void clearBits(ChessPiece piece, int square) {
+        if (piece == null) {
+            return;
+        }
+        long mask = ~(1L << square);
+        int team = piece.getTeamColor().ordinal();
+        int index = pieceIndex(piece.getTeamColor(), piece.getPieceType());
+        pieceBitboards[index] &= mask;
+        teamBitboards[team] &= mask;
+        occupiedBitboard &= mask;
+        zobristKey ^= Zobrist.pieceSquare(index, square);
+        if (piece.getPieceType() == ChessPiece.PieceType.KING && kingSquares[team] == square) {
+            // fall back to any other king of that team; only hand-built boards have two
+            long remaining = pieceBitboards[index];
+            kingSquares[team] = (remaining == 0) ? -1 : Long.numberOfTrailingZeros(remaining);
         }
     }
 
@@ -89,6 +321,6 @@ public class ChessBoard {
     }
     @Override
     public int hashCode() {
-        return Arrays.deepHashCode(boardArray);
+        return Long.hashCode(getZobristKey());
     }
-}
\ No newline at end of file
+}
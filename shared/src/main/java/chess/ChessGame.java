@@ -1,7 +1,11 @@
 package chess;
 
 
-import java.util.ArrayList;
+import chess.piecemovescalculator.AttackTables;
+import chess.piecemovescalculator.LegalMoveGenerator;
+import chess.piecemovescalculator.MoveList;
+import chess.piecemovescalculator.PackedMove;
+
 import java.util.Collection;
 import java.util.Objects;
 
@@ -13,13 +17,150 @@ import java.util.Objects;
  */
 public class ChessGame {
 
+    // packed undo state: captured piece index + 1 (0 for none), the castling rights and
+    // en passant square + 1 from before the move, whether the move was en passant, and
+    // the halfmove clock from before the move
+    private static final int CAPTURED_MASK = 0xF;
+    private static final int RIGHTS_SHIFT = 4;
+    private static final int EN_PASSANT_SHIFT = 8;
+    private static final int EN_PASSANT_CAPTURE = 1 << 15;
+    private static final int HALFMOVE_SHIFT = 16;
+    private static final int HALFMOVE_MASK = 0x7FFF;
+
+    // FEN letter for each castling right, in CastlingRights bit order
+    private static final String FEN_CASTLING = "KQkq";
+
     private ChessBoard board;
     private TeamColor currentTurn;
+    private int castlingRights;
+    // square behind a pawn that just moved two squares, kept only while an enemy pawn
+    // stands ready to capture it; -1 otherwise
+    private int enPassantSquare;
+    // plies since the last capture or pawn move, and the FEN move number (starts at 1,
+    // goes up after each black move); recorded for FEN, not used by the rules here
+    private int halfmoveClock;
+    private int fullmoveNumber;
 
     public ChessGame() {
         board = new ChessBoard();
         board.resetBoard();
         currentTurn = TeamColor.WHITE;
+        castlingRights = CastlingRights.ALL;
+        enPassantSquare = -1;
+        fullmoveNumber = 1;
+    }
+
+    /**
+     * Creates an independent copy of another game, so moves can be played on the copy
+     * (for example by another thread) without touching the original.
+     *
+     * @param other the game to copy
+     */
+    public ChessGame(ChessGame other) {
+        board = new ChessBoard(other.board);
+        currentTurn = other.currentTurn;
+        castlingRights = other.castlingRights;
+        enPassantSquare = other.enPassantSquare;
+        halfmoveClock = other.halfmoveClock;
+        fullmoveNumber = other.fullmoveNumber;
+    }
+
+    /**
+     * Creates a game from a FEN record, such as
+     * {@code rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1}. The halfmove
+     * clock and move number may be left off. Castling rights are kept only where the king
+     * and rook still stand on their squares, and an en passant square only where a pawn
+     * can capture onto it, so equal positions always compare equal.
+     *
+     * @param fen FEN record
+     * @return the game
+     * @throws IllegalArgumentException if the record is malformed
+     */
+    public static ChessGame fromFen(String fen) {
+        String[] fields = fen.trim().split("\\s+");
+        if (fields.length < 4 || fields.length > 6) {
+            throw new IllegalArgumentException("FEN needs 4 to 6 fields: " + fen);
+        }
+        ChessGame game = new ChessGame();
+        game.board = ChessBoard.fromFen(fields[0]);
+
+        game.currentTurn = switch (fields[1]) {
+            case "w" -> TeamColor.WHITE;
+            case "b" -> TeamColor.BLACK;
+            default -> throw new IllegalArgumentException("Bad FEN side to move: " + fields[1]);
+        };
+
+        int rights = CastlingRights.NONE;
+        if (!fields[2].equals("-")) {
+            for (char c : fields[2].toCharArray()) {
+                int index = FEN_CASTLING.indexOf(c);
+                if (index < 0) {
+                    throw new IllegalArgumentException("Bad FEN castling rights: " + fields[2]);
+                }
+                rights |= 1 << index;
+            }
+        }
+        game.castlingRights = rights & CastlingRights.fromBoard(game.board);
+
+        game.enPassantSquare = -1;
+        if (!fields[3].equals("-")) {
+            int square = parseSquare(fields[3]);
+            int expectedRow = (game.currentTurn == TeamColor.WHITE) ? 5 : 2;
+            if (square < 0 || square >>> 3 != expectedRow) {
+                throw new IllegalArgumentException("Bad FEN en passant square: " + fields[3]);
+            }
+            TeamColor mover = game.currentTurn;
+            if ((AttackTables.pawnAttacks(opponent(mover), square)
+                    & game.board.getPieceBitboard(mover, ChessPiece.PieceType.PAWN)) != 0) {
+                game.enPassantSquare = square;
+            }
+        }
+
+        try {
+            game.halfmoveClock = fields.length > 4 ? Integer.parseInt(fields[4]) : 0;
+            game.fullmoveNumber = fields.length > 5 ? Integer.parseInt(fields[5]) : 1;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Bad FEN move counters: " + fen);
+        }
+        if (game.halfmoveClock < 0 || game.fullmoveNumber < 1) {
+            throw new IllegalArgumentException("Bad FEN move counters: " + fen);
+        }
+        return game;
+    }
+
+    /**
+     * @return the position as a FEN record
+     */
+    public String toFen() {
+        StringBuilder fen = new StringBuilder(board.toFen());
+        fen.append(currentTurn == TeamColor.WHITE ? " w " : " b ");
+        if (castlingRights == CastlingRights.NONE) {
+            fen.append('-');
+        }
+        for (int i = 0; i < FEN_CASTLING.length(); i++) {
+            if ((castlingRights & (1 << i)) != 0) {
+                fen.append(FEN_CASTLING.charAt(i));
+            }
+        }
+        fen.append(' ');
+        if (enPassantSquare < 0) {
+            fen.append('-');
+        } else {
+            fen.append((char) ('a' + (enPassantSquare & 7))).append((enPassantSquare >>> 3) + 1);
+        }
+        return fen.append(' ').append(halfmoveClock).append(' ').append(fullmoveNumber).toString();
+    }
+
+    private static int parseSquare(String name) {
+        if (name.length() != 2) {
+            return -1;
+        }
+        int file = name.charAt(0) - 'a';
+        int rank = name.charAt(1) - '1';
+        if (file < 0 || file > 7 || rank < 0 || rank > 7) {
+            return -1;
+        }
+        return rank * 8 + file;
     }
 
     /**
@@ -58,16 +199,7 @@ public class ChessGame {
         if (piece == null) {
             return null;
         }
-        Collection<ChessMove> rawMoves = piece.pieceMoves(board, startPosition);
-        Collection<ChessMove> legalMoves = new ArrayList<>();
-
-        for (ChessMove move : rawMoves) {
-            if (!causesOwnKingCheck(move)) {
-                legalMoves.add(move);
-            }
-        }
-
-        return legalMoves;
+        return generatorFor(piece.getTeamColor()).legalMoves(startPosition);
     }
 
 
@@ -93,10 +225,223 @@ public class ChessGame {
         if (possibleMoves == null || !possibleMoves.contains(move)) {
             throw new InvalidMoveException("Move " + move + " is not valid for this piece.");
         }
-        executeBoardMove(move);
+        applyMove(move);
+    }
+
+    /**
+     * Plays a move on the live board without checking that it is legal, and passes
+     * the turn to the other team.
+     *
+     * @param move chess move to play; a piece must stand on its start position
+     * @return record that {@link #unmakeMove(MoveUndo)} uses to take the move back
+     */
+    public MoveUndo applyMove(ChessMove move) {
+        int packed = PackedMove.encode(move);
+        return new MoveUndo(move, packed, applyMove(packed));
+    }
+
+    /**
+     * Takes back a move made with {@link #applyMove(ChessMove)}, restoring any
+     * captured piece, the unpromoted pawn and the team whose turn it was. Moves
+     * must be taken back in the reverse order they were made.
+     *
+     * @param undo record returned when the move was applied
+     */
+    public void unmakeMove(MoveUndo undo) {
+        unmakeMove(undo.packedMove(), undo.state());
+    }
+
+    /**
+     * Plays a packed move (see {@link PackedMove}) without checking that it is legal.
+     * This is the allocation-free form of {@link #applyMove(ChessMove)} used by search
+     * and perft.
+     *
+     * @param move packed move to play; a piece must stand on its start square
+     * @return packed state that {@link #unmakeMove(int, int)} needs to take the move back
+     */
+    public int applyMove(int move) {
+        int from = PackedMove.from(move);
+        int to = PackedMove.to(move);
+        ChessPiece movingPiece = board.getPiece(from);
+        ChessPiece.PieceType movingType = movingPiece.getPieceType();
+        int state = (castlingRights << RIGHTS_SHIFT) | ((enPassantSquare + 1) << EN_PASSANT_SHIFT)
+                | (Math.min(halfmoveClock, HALFMOVE_MASK) << HALFMOVE_SHIFT);
+
+        // castling and en passant are recognised from the board, so moves built from a
+        // ChessMove (which carry no flags) are played correctly too
+        int capturedSquare = to;
+        if (movingType == ChessPiece.PieceType.PAWN && to == enPassantSquare) {
+            capturedSquare = (from & ~7) | (to & 7);
+            state |= EN_PASSANT_CAPTURE;
+        }
+        ChessPiece captured = board.getPiece(capturedSquare);
+        if (captured != null) {
+            state |= ChessBoard.pieceIndex(captured.getTeamColor(), captured.getPieceType()) + 1;
+            if (capturedSquare != to) {
+                board.addPiece(ChessPosition.ofSquare(capturedSquare), null);
+            }
+        }
+
+        ChessPiece.PieceType promotion = PackedMove.promotion(move);
+        if (promotion != null) {
+            movingPiece = ChessPiece.of(movingPiece.getTeamColor(), promotion);
+        }
+        board.addPiece(ChessPosition.ofSquare(from), null);
+        board.addPiece(ChessPosition.ofSquare(to), movingPiece);
+
+        if (movingType == ChessPiece.PieceType.KING && Math.abs(to - from) == 2) {
+            moveCastlingRook(from, to, false);
+        }
+
+        castlingRights = CastlingRights.afterMove(castlingRights, from, to);
+        halfmoveClock = (movingType == ChessPiece.PieceType.PAWN || captured != null) ? 0 : halfmoveClock + 1;
+        if (currentTurn == TeamColor.BLACK) {
+            fullmoveNumber++;
+        }
+        enPassantSquare = -1;
+        if (movingType == ChessPiece.PieceType.PAWN && Math.abs(to - from) == 16) {
+            int behind = (from + to) / 2;
+            TeamColor enemy = opponent(movingPiece.getTeamColor());
+            if ((AttackTables.pawnAttacks(movingPiece.getTeamColor(), behind)
+                    & board.getPieceBitboard(enemy, ChessPiece.PieceType.PAWN)) != 0) {
+                enPassantSquare = behind;
+            }
+        }
+        currentTurn = opponent(currentTurn);
+        return state;
+    }
+
+    /**
+     * Takes back a move made with {@link #applyMove(int)}. Moves must be taken back in
+     * the reverse order they were made.
+     *
+     * @param move  the packed move that was played
+     * @param state the value {@link #applyMove(int)} returned for it
+     */
+    public void unmakeMove(int move, int state) {
+        int from = PackedMove.from(move);
+        int to = PackedMove.to(move);
+        ChessPiece movedPiece = board.getPiece(to);
+        if (PackedMove.promotion(move) != null) {
+            movedPiece = ChessPiece.of(movedPiece.getTeamColor(), ChessPiece.PieceType.PAWN);
+        }
+        int captured = state & CAPTURED_MASK;
+        ChessPiece capturedPiece = captured == 0 ? null : ChessBoard.pieceFromIndex(captured - 1);
+        if ((state & EN_PASSANT_CAPTURE) != 0) {
+            board.addPiece(ChessPosition.ofSquare(to), null);
+            board.addPiece(ChessPosition.ofSquare((from & ~7) | (to & 7)), capturedPiece);
+        } else {
+            board.addPiece(ChessPosition.ofSquare(to), capturedPiece);
+        }
+        board.addPiece(ChessPosition.ofSquare(from), movedPiece);
+
+        if (movedPiece.getPieceType() == ChessPiece.PieceType.KING && Math.abs(to - from) == 2) {
+            moveCastlingRook(from, to, true);
+        }
+        castlingRights = (state >>> RIGHTS_SHIFT) & CastlingRights.ALL;
+        enPassantSquare = ((state >>> EN_PASSANT_SHIFT) & 0x7F) - 1;
+        halfmoveClock = (state >>> HALFMOVE_SHIFT) & HALFMOVE_MASK;
+        currentTurn = opponent(currentTurn);
+        if (currentTurn == TeamColor.BLACK) {
+            fullmoveNumber--;
+        }
+    }
+
+    /**
+     * Moves the rook that goes with a castling king move, or puts it back
+     */
+    private void moveCastlingRook(int kingFrom, int kingTo, boolean undo) {
+        int rookFrom = (kingTo > kingFrom) ? kingFrom + 3 : kingFrom - 4;
+        int rookTo = (kingFrom + kingTo) / 2;
+        if (undo) {
+            int swap = rookFrom;
+            rookFrom = rookTo;
+            rookTo = swap;
+        }
+        ChessPosition rookStart = ChessPosition.ofSquare(rookFrom);
+        board.addPiece(ChessPosition.ofSquare(rookTo), board.getPiece(rookStart));
+        board.addPiece(rookStart, null);
+    }
+
+    /**
+     * Appends every legal move for the team whose turn it is
+     *
+     * @param moves list to fill with packed moves
+     */
+    public void generateLegalMoves(MoveList moves) {
+        generatorFor(currentTurn).generateLegalMoves(moves);
+    }
+
+    /**
+     * @return plies since the last capture or pawn move
+     */
+    public int getHalfmoveClock() {
+        return halfmoveClock;
+    }
+
+    /**
+     * @return the FEN move number: 1 at the start, going up after each black move
+     */
+    public int getFullmoveNumber() {
+        return fullmoveNumber;
+    }
+
+    /**
+     * Sets the move counters, for restoring a game from a stored form
+     */
+    public void setMoveClocks(int halfmoveClock, int fullmoveNumber) {
+        this.halfmoveClock = halfmoveClock;
+        this.fullmoveNumber = fullmoveNumber;
+    }
+
+    /**
+     * @return castling rights still held, as a {@link CastlingRights} bit set
+     */
+    public int getCastlingRights() {
+        return castlingRights;
+    }
+
+    /**
+     * Sets the castling rights, for restoring a game from a stored form. Call after
+     * {@link #setBoard}, which derives rights of its own.
+     *
+     * @param rights a {@link CastlingRights} bit set
+     */
+    public void setCastlingRights(int rights) {
+        castlingRights = rights & CastlingRights.ALL;
+    }
+
+    /**
+     * @return the square the side to move may capture onto en passant, or null if there is none
+     */
+    public ChessPosition getEnPassantSquare() {
+        return enPassantSquare < 0 ? null : ChessPosition.ofSquare(enPassantSquare);
+    }
 
-        currentTurn = (currentTurn == TeamColor.WHITE) ? TeamColor.BLACK : TeamColor.WHITE;
+    /**
+     * Sets the en passant square, for restoring a game from a stored form. Call after
+     * {@link #setBoard}, which clears it.
+     *
+     * @param square the square behind a pawn that just moved two squares, or null
+     */
+    public void setEnPassantSquare(ChessPosition square) {
+        enPassantSquare = (square == null) ? -1 : ChessBoard.squareIndex(square);
+    }
 
+    private LegalMoveGenerator generatorFor(TeamColor teamColor) {
+        // an en passant square always belongs to the side to move
+        int enPassant = (teamColor == currentTurn) ? enPassantSquare : -1;
+        return new LegalMoveGenerator(board, teamColor, castlingRights, enPassant);
+    }
+
+    /**
+     * A played move and the state it overwrote, kept so the move can be taken back
+     *
+     * @param move       the move that was played
+     * @param packedMove the move in {@link PackedMove} form
+     * @param state      packed state returned by {@link #applyMove(int)}
+     */
+    public record MoveUndo(ChessMove move, int packedMove, int state) {
     }
 
     /**
@@ -120,10 +465,8 @@ public class ChessGame {
      * @return True if the specified team is in checkmate
      */
     public boolean isInCheckmate(TeamColor teamColor) {
-        if (!isInCheck(teamColor)) {
-            return false;
-        }
-        return !teamHasAnyMoves(teamColor);
+        LegalMoveGenerator generator = generatorFor(teamColor);
+        return generator.inCheck() && !generator.hasAnyLegalMove();
     }
 
 
@@ -135,20 +478,22 @@ public class ChessGame {
      * @return True if the specified team is in stalemate, otherwise false
      */
     public boolean isInStalemate(TeamColor teamColor) {
-        if (isInCheck(teamColor)) {
-            return false;
-        }
-        return !teamHasAnyMoves(teamColor);
+        LegalMoveGenerator generator = generatorFor(teamColor);
+        return !generator.inCheck() && !generator.hasAnyLegalMove();
     }
 
 
     /**
-     * Sets this game's chessboard with a given board
+     * Sets this game's chessboard with a given board. The board carries no history, so
+     * castling rights are assumed for every king and rook on its starting square, and
+     * there is no en passant capture.
      *
      * @param board the new board to use
      */
     public void setBoard(ChessBoard board) {
         this.board = board;
+        castlingRights = CastlingRights.fromBoard(board);
+        enPassantSquare = -1;
     }
 
     /**
@@ -160,108 +505,42 @@ public class ChessGame {
         return board;
     }
 
-    private ChessBoard copyBoard(ChessBoard original) {
-        ChessBoard clone = new ChessBoard();
-        for (int r = 1; r <= 8; r++) {
-            for (int c = 1; c <= 8; c++) {
-                ChessPosition pos = new ChessPosition(r, c);
-                ChessPiece piece = original.getPiece(pos);
-                if (piece != null) {
-                    ChessPiece copyPiece =
-                            new ChessPiece(piece.getTeamColor(), piece.getPieceType());
-                    clone.addPiece(pos, copyPiece);
-                }
-            }
+    /**
+     * Gets a 64-bit Zobrist key for the position: the board's piece key combined with
+     * the side to move, castling rights and en passant file. Equal positions always have
+     * equal keys, so the key can stand in for the position in maps, repetition checks
+     * and caches.
+     *
+     * @return the position key
+     */
+    public long getPositionKey() {
+        long key = board.getZobristKey() ^ Zobrist.castling(castlingRights);
+        if (currentTurn == TeamColor.BLACK) {
+            key ^= Zobrist.blackToMove();
         }
-        return clone;
-    }
-
-
-    private ChessPosition findKingPosition(TeamColor color, ChessBoard theBoard) {
-        for (int r = 1; r <= 8; r++) {
-            for (int c = 1; c <= 8; c++) {
-                ChessPosition pos = new ChessPosition(r, c);
-                ChessPiece piece = theBoard.getPiece(pos);
-                if (piece != null
-                        && piece.getTeamColor() == color
-                        && piece.getPieceType() == ChessPiece.PieceType.KING) {
-                    return pos;
-                }
-            }
+        if (enPassantSquare >= 0) {
+            key ^= Zobrist.enPassantFile(enPassantSquare & 7);
         }
-        return null;
+        return key;
     }
 
-
-    private boolean underAttack(ChessPosition kingPos, TeamColor kingColor, ChessBoard theBoard) {
-        for (int r = 1; r <= 8; r++) {
-            for (int c = 1; c <= 8; c++) {
-                ChessPosition enemyPos = new ChessPosition(r, c);
-                ChessPiece enemyPiece = theBoard.getPiece(enemyPos);
-                if (enemyPiece != null && enemyPiece.getTeamColor() != kingColor) {
-                    Collection<ChessMove> enemyMoves = enemyPiece.pieceMoves(theBoard, enemyPos);
-                    if (enemyMoves.stream().anyMatch(mov -> mov.getEndPosition().equals(kingPos))) {
-                        return true;
-                    }
-                }
-            }
-        }
-        return false;
+    private static TeamColor opponent(TeamColor color) {
+        return (color == TeamColor.WHITE) ? TeamColor.BLACK : TeamColor.WHITE;
     }
 
-
-    private boolean isInCheckOnBoard(TeamColor color, ChessBoard tempBoard) {
-        ChessPosition kingSpot = findKingPosition(color, tempBoard);
-        if (kingSpot == null) {
-            return false;
+    private ChessPosition findKingPosition(TeamColor color, ChessBoard theBoard) {
+        int square = theBoard.getKingSquare(color);
+        if (square < 0) {
+            return null;
         }
-        return underAttack(kingSpot, color, tempBoard);
+        return ChessPosition.ofSquare(square);
     }
 
 
-    private boolean causesOwnKingCheck(ChessMove move) {
-        ChessPiece mover = board.getPiece(move.getStartPosition());
-        if (mover == null) {
-            return false;
-        }
-        TeamColor moverColor = mover.getTeamColor();
-
-        ChessBoard temp = copyBoard(board);
-
-        ChessPiece tempPiece = temp.getPiece(move.getStartPosition());
-        temp.addPiece(move.getStartPosition(), null);
-
-        if (move.getPromotionPiece() != null) {
-            tempPiece = new ChessPiece(moverColor, move.getPromotionPiece());
-        }
-        temp.addPiece(move.getEndPosition(), tempPiece);
-
-        return isInCheckOnBoard(moverColor, temp);
-    }
-
-    private void executeBoardMove(ChessMove move) {
-        ChessPiece movingPiece = board.getPiece(move.getStartPosition());
-        board.addPiece(move.getStartPosition(), null);
-        if (move.getPromotionPiece() != null) {
-            movingPiece = new ChessPiece(movingPiece.getTeamColor(), move.getPromotionPiece());
-        }
-        board.addPiece(move.getEndPosition(), movingPiece);
-    }
-
-    private boolean teamHasAnyMoves(TeamColor color) {
-        for (int row = 1; row <= 8; row++) {
-            for (int col = 1; col <= 8; col++) {
-                ChessPosition p = new ChessPosition(row, col);
-                ChessPiece occupant = board.getPiece(p);
-                if (occupant != null && occupant.getTeamColor() == color) {
-                    Collection<ChessMove> moves = validMoves(p);
-                    if (moves != null && !moves.isEmpty()) {
-                        return true;
-                    }
-                }
-            }
-        }
-        return false;
+    private boolean underAttack(ChessPosition kingPos, TeamColor kingColor, ChessBoard theBoard) {
+        TeamColor enemyColor = (kingColor == TeamColor.WHITE) ? TeamColor.BLACK : TeamColor.WHITE;
+        return AttackTables.isSquareAttacked(theBoard, ChessBoard.squareIndex(kingPos),
+                theBoard.getOccupiedBitboard(), enemyColor);
     }
 
 
@@ -273,13 +552,16 @@ public class ChessGame {
         if (!(o instanceof ChessGame other)) {
             return false;
         }
+        // the move counters are left out: they record history, not the position
         return currentTurn == other.currentTurn
+                && castlingRights == other.castlingRights
+                && enPassantSquare == other.enPassantSquare
                 && Objects.equals(board, other.board);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(board, currentTurn);
+        return Long.hashCode(getPositionKey());
     }
 
 }
@@ -13,6 +13,17 @@ import java.util.Collection;
  */
 public class ChessPiece {
 
+    private static final ChessPiece[][] PIECES =
+            new ChessPiece[ChessGame.TeamColor.values().length][PieceType.values().length];
+
+    static {
+        for (ChessGame.TeamColor color : ChessGame.TeamColor.values()) {
+            for (PieceType type : PieceType.values()) {
+                PIECES[color.ordinal()][type.ordinal()] = new ChessPiece(color, type);
+            }
+        }
+    }
+
     private final ChessGame.TeamColor teamColor;
     private final PieceType pieceType;
 
@@ -22,6 +33,16 @@ public class ChessPiece {
 
     }
 
+    /**
+     * Returns the shared instance for a colour and type. Pieces are immutable, so the
+     * twelve canonical instances can stand in for any number of copies.
+     *
+     * @return the canonical piece
+     */
+    public static ChessPiece of(ChessGame.TeamColor pieceColor, PieceType type) {
+        return PIECES[pieceColor.ordinal()][type.ordinal()];
+    }
+
     /**
      * The various different chess piece options
      */
@@ -56,16 +77,23 @@ public class ChessPiece {
      * @return Collection of valid moves
      */
     public Collection<ChessMove> pieceMoves(ChessBoard board, ChessPosition myPosition) {
-        return switch (pieceType) {
-            case BISHOP -> new BishopMoves().allPossibleMoves(board, myPosition);
-            case KING -> new KingMoves().allPossibleMoves(board, myPosition);
-            case QUEEN -> new QueenMoves().allPossibleMoves(board, myPosition);
-            case KNIGHT -> new KnightMoves().allPossibleMoves(board, myPosition);
-            case PAWN -> new PawnMoves().allPossibleMoves(board, myPosition);
-            case ROOK -> new RookMoves().allPossibleMoves(board, myPosition);
-            default -> new MovesCalculator().allPossibleMoves(board, myPosition);
-        };
+        return calculator().allPossibleMoves(board, myPosition);
     }
+
+    /**
+     * Appends this piece's pseudo-legal moves, as packed ints, to a move list
+     *
+     * @param from       square this piece stands on
+     * @param targetMask only moves ending on these squares are added; -1 for all
+     */
+    public void generateMoves(ChessBoard board, int from, long targetMask, MoveList moves) {
+        calculator().generateMoves(board, from, targetMask, moves);
+    }
+
+    private MovesCalculator calculator() {
+        return MovesCalculator.forType(pieceType);
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
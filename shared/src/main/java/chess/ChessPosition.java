@@ -10,6 +10,14 @@ import java.util.Objects;
  */
 public class ChessPosition {
 
+    private static final ChessPosition[] SQUARES = new ChessPosition[64];
+
+    static {
+        for (int square = 0; square < 64; square++) {
+            SQUARES[square] = new ChessPosition((square >>> 3) + 1, (square & 7) + 1);
+        }
+    }
+
     private final int row;
     private final int column;
 
@@ -18,6 +26,25 @@ public class ChessPosition {
         this.column = column;
     }
 
+    /**
+     * Returns the shared instance for an on-board square, so hot paths avoid allocating.
+     *
+     * @param row    1 through 8
+     * @param column 1 through 8
+     * @return the canonical position for that square
+     */
+    public static ChessPosition of(int row, int column) {
+        return SQUARES[(row - 1) * 8 + (column - 1)];
+    }
+
+    /**
+     * @param square square index, 0 (a1) through 63 (h8)
+     * @return the canonical position for that square
+     */
+    public static ChessPosition ofSquare(int square) {
+        return SQUARES[square];
+    }
+
     /**
      * @return which row this position is in
      * 1 codes for the bottom row
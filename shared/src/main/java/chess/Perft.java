@@ -0,0 +1,184 @@
+package chess;
+
+import chess.piecemovescalculator.MoveList;
+import chess.piecemovescalculator.PackedMove;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.LongSupplier;
+
+/**
+ * Perft ("performance test"): counts the leaf nodes of the legal move tree to a fixed
+ * depth. The counts for standard positions are published, so a mismatch shows the move
+ * generator is wrong, and nodes per second shows how fast it is.
+ * <p>
+ * Moves are generated into one reusable {@link MoveList} per ply and played with
+ * {@link ChessGame#applyMove(int)} / {@link ChessGame#unmakeMove(int, int)}, so the
+ * serial search does not allocate per node. The parallel search gives each root move
+ * its own copy of the game.
+ */
+public final class Perft {
+
+    private Perft() {
+    }
+
+    /**
+     * Counts leaf nodes on the calling thread. The game is left as it was found.
+     *
+     * @param game  position to search from; the side to move is the game's current turn
+     * @param depth number of plies to search
+     * @return number of move sequences of exactly {@code depth} plies
+     */
+    public static long perft(ChessGame game, int depth) {
+        if (depth <= 0) {
+            return 1;
+        }
+        return count(game, depth, newMoveLists(depth));
+    }
+
+    /**
+     * Counts leaf nodes using the common fork-join pool
+     *
+     * @see #perftParallel(ChessGame, int, ForkJoinPool)
+     */
+    public static long perftParallel(ChessGame game, int depth) {
+        return perftParallel(game, depth, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Counts leaf nodes by searching each root move as a separate fork-join task. The
+     * game itself is not modified.
+     *
+     * @param game  position to search from
+     * @param depth number of plies to search
+     * @param pool  pool to run the tasks in
+     * @return the same count {@link #perft} returns
+     */
+    public static long perftParallel(ChessGame game, int depth, ForkJoinPool pool) {
+        if (depth <= 1) {
+            return perft(new ChessGame(game), depth);
+        }
+        return pool.invoke(new RootTask(game, depth));
+    }
+
+    /**
+     * Counts leaf nodes below each root move, the usual way to find which move a wrong
+     * total comes from.
+     *
+     * @return node count per legal root move, in generation order
+     */
+    public static Map<ChessMove, Long> divide(ChessGame game, int depth) {
+        Map<ChessMove, Long> result = new LinkedHashMap<>();
+        MoveList[] lists = newMoveLists(Math.max(depth, 1));
+        MoveList moves = new MoveList();
+        game.generateLegalMoves(moves);
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            int state = game.applyMove(move);
+            result.put(PackedMove.toChessMove(move), depth <= 1 ? 1 : count(game, depth - 1, lists));
+            game.unmakeMove(move, state);
+        }
+        return result;
+    }
+
+    private static long count(ChessGame game, int depth, MoveList[] lists) {
+        MoveList moves = lists[depth];
+        moves.clear();
+        game.generateLegalMoves(moves);
+        if (depth == 1) {
+            return moves.size();
+        }
+        long nodes = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            int state = game.applyMove(move);
+            nodes += count(game, depth - 1, lists);
+            game.unmakeMove(move, state);
+        }
+        return nodes;
+    }
+
+    private static MoveList[] newMoveLists(int depth) {
+        MoveList[] lists = new MoveList[depth + 1];
+        for (int i = 0; i < lists.length; i++) {
+            lists[i] = new MoveList();
+        }
+        return lists;
+    }
+
+    private static final class RootTask extends RecursiveTask<Long> {
+        private final ChessGame game;
+        private final int depth;
+
+        RootTask(ChessGame game, int depth) {
+            this.game = game;
+            this.depth = depth;
+        }
+
+        @Override
+        protected Long compute() {
+            MoveList moves = new MoveList();
+            game.generateLegalMoves(moves);
+            List<RecursiveTask<Long>> tasks = new ArrayList<>(moves.size());
+            for (int i = 0; i < moves.size(); i++) {
+                ChessGame child = new ChessGame(game);
+                child.applyMove(moves.get(i));
+                tasks.add(new SubtreeTask(child, depth - 1));
+            }
+            long nodes = 0;
+            for (RecursiveTask<Long> task : invokeAll(tasks)) {
+                nodes += task.join();
+            }
+            return nodes;
+        }
+    }
+
+    private static final class SubtreeTask extends RecursiveTask<Long> {
+        private final ChessGame game;
+        private final int depth;
+
+        SubtreeTask(ChessGame game, int depth) {
+            this.game = game;
+            this.depth = depth;
+        }
+
+        @Override
+        protected Long compute() {
+            return perft(game, depth);
+        }
+    }
+
+    /**
+     * Runs perft and prints node counts and speed.
+     * <p>
+     * Usage: {@code Perft [depth] [serial|parallel|both] [FEN]}, defaulting to depth 5,
+     * both modes, from the starting position.
+     */
+    public static void main(String[] args) {
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        String mode = args.length > 1 ? args[1] : "both";
+
+        ChessGame game = args.length > 2
+                ? ChessGame.fromFen(String.join(" ", Arrays.copyOfRange(args, 2, args.length)))
+                : new ChessGame();
+        if (!mode.equals("parallel")) {
+            report("serial", depth, () -> perft(game, depth));
+        }
+        if (!mode.equals("serial")) {
+            report("parallel", depth, () -> perftParallel(game, depth));
+        }
+    }
+
+    private static void report(String label, int depth, LongSupplier search) {
+        long start = System.nanoTime();
+        long nodes = search.getAsLong();
+        long elapsed = Math.max(System.nanoTime() - start, 1);
+        System.out.printf("%-8s depth %d: %,d nodes in %,d ms (%,.0f nodes/s)%n", label, depth, nodes,
+                elapsed / 1_000_000, nodes * 1e9 / elapsed);
+    }
+}
@@ -0,0 +1,66 @@
+package chess;
+
+import java.util.SplittableRandom;
+
+/**
+ * Random 64-bit keys for Zobrist position hashing. A position's key is the XOR of
+ * the key for every piece on its square, the side-to-move key when black is to move,
+ * and the keys for castling rights and the en passant file once those are tracked.
+ * Adding or removing a piece is a single XOR, so keys can be kept up to date
+ * incrementally instead of being recomputed.
+ * <p>
+ * The keys come from a fixed seed, so they are identical across JVMs and safe to
+ * store or compare between server and client.
+ */
+public final class Zobrist {
+
+    private static final long[][] PIECE_SQUARE = new long[12][64];
+    private static final long BLACK_TO_MOVE;
+    private static final long[] CASTLING = new long[16];
+    private static final long[] EN_PASSANT_FILE = new long[8];
+
+    static {
+        SplittableRandom random = new SplittableRandom(0x240C4E55L);
+        for (long[] keys : PIECE_SQUARE) {
+            for (int square = 0; square < 64; square++) {
+                keys[square] = random.nextLong();
+            }
+        }
+        BLACK_TO_MOVE = random.nextLong();
+        for (int rights = 1; rights < CASTLING.length; rights++) {
+            CASTLING[rights] = random.nextLong();
+        }
+        for (int file = 0; file < 8; file++) {
+            EN_PASSANT_FILE[file] = random.nextLong();
+        }
+    }
+
+    private Zobrist() {
+    }
+
+    /**
+     * @param pieceIndex index from {@link ChessBoard#pieceIndex}
+     * @param square     square index, 0 (a1) through 63 (h8)
+     */
+    public static long pieceSquare(int pieceIndex, int square) {
+        return PIECE_SQUARE[pieceIndex][square];
+    }
+
+    public static long blackToMove() {
+        return BLACK_TO_MOVE;
+    }
+
+    /**
+     * @param rights castling-rights bit set, 0 through 15; 0 (no rights) hashes to 0
+     */
+    public static long castling(int rights) {
+        return CASTLING[rights];
+    }
+
+    /**
+     * @param file en passant target file, 0 (a) through 7 (h)
+     */
+    public static long enPassantFile(int file) {
+        return EN_PASSANT_FILE[file];
+    }
+}
@@ -0,0 +1,325 @@
+package chess.piecemovescalculator;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+
+/**
+ * Precomputed attack lookups on square indices (0 = a1, 63 = h8).
+ * <p>
+ * Knight, king and pawn attacks are plain per-square tables. {@link #between(int, int)}
+ * and {@link #line(int, int)} give the squares joining two aligned squares, which the
+ * legal move generator uses for check blocking and pins.
+ * <p>
+ * Rook and bishop attacks use fixed-shift magic bitboards: the blockers on a
+ * piece's relevant rays are multiplied by a per-square magic number, and the top
+ * bits of the product index a table of attack sets. Every entry is filled once when
+ * the class loads, so a slider lookup is a mask, a multiply, a shift and an array read.
+ */
+public final class AttackTables {
+
+    private static final long[] ROOK_MAGICS = {
+            0x1180081040008020L, 0x014000D000200048L, 0x0280100020008008L, 0x0080100080080005L,
+            0x0480020400080080L, 0x0A00020081080410L, 0x2600040200084081L, 0x020004012180410EL,
+            0x0000800080400020L, 0x0001002040010090L, 0x801A004200108024L, 0x0822800802801000L,
+            0x0002800800810400L, 0x1000800400020080L, 0x0109000401002200L, 0x1981000100004082L,
+            0x8040018000402080L, 0xA00E020041082380L, 0x40A0048010008020L, 0x0210010008210010L,
+            0x8088818004001802L, 0x2A24008080020004L, 0x0000040001100802L, 0x1000020008411084L,
+            0x4000400180087080L, 0x2540004540201002L, 0x0808408200120021L, 0x0000100080080085L,
+            0x0008010100080410L, 0x0023040080800200L, 0x0C01004100440200L, 0x2800004200210084L,
+            0x3004204014800081L, 0x001001400140200AL, 0x8210200101001040L, 0x4424490025001000L,
+            0x0008000400800880L, 0x2C00800200800400L, 0x8090081004000102L, 0x00080C02820020C5L,
+            0x0000800040008020L, 0x8080820021020040L, 0x0020802200120040L, 0x0202002008420010L,
+            0x0004008040080800L, 0x0000020004008080L, 0x1200504102040048L, 0x4C01000040810002L,
+            0x0580002000400040L, 0x2015802000400C80L, 0x8080461082022200L, 0x0002201005000900L,
+            0xC900080100900500L, 0x0002002400807280L, 0x0004021008410400L, 0x0810010080540200L,
+            0x2000208000110041L, 0x300B024002B0A081L, 0x0000090020004293L, 0x0008200408100101L,
+            0x0122000420081002L, 0x0011000400080201L, 0x018008A110120804L, 0x0900040221124082L
+    };
+
+    private static final long[] BISHOP_MAGICS = {
+            0x2002102208004480L, 0x0808012124010C01L, 0x0008025042010045L, 0x2202208601038101L,
+            0x4044050405040100L, 0x0102080208020100L, 0x0006210920100020L, 0x0100808048024000L,
+            0x00800A2084040040L, 0x000AA00101410104L, 0x1108082E240CA100L, 0x0010082080202244L,
+            0x1002084840020000L, 0x000842180404001AL, 0x4043008210022000L, 0x100003040A014468L,
+            0x000500084858082CL, 0x0028040310041080L, 0x8008000400240014L, 0x2094002241020001L,
+            0x0182001012100000L, 0x4002030908010C00L, 0x1129180041082024L, 0x000284204410A820L,
+            0x483044814A200421L, 0x00082000081A2484L, 0x800E0442020C0400L, 0x0008080004220060L,
+            0x2801001001004002L, 0x4401010002100080L, 0x03050120C6441000L, 0x01010100014404A1L,
+            0x8101500810D02004L, 0x2002082003048100L, 0x0402010A41040801L, 0x0022020080180080L,
+            0x00440C0400001100L, 0x0000851302060088L, 0x010810C100308800L, 0x0001240020108210L,
+            0x00AC412050020808L, 0xA000820120041100L, 0x0811094402171000L, 0x0010054022089021L,
+            0x6011240810140201L, 0x0010041004101020L, 0x0020084102468500L, 0x00011C0082000090L,
+            0x1254881490040300L, 0x8084804402600C20L, 0x6002010090904000L, 0x0000021084044040L,
+            0x004000445044020AL, 0x0401100250010028L, 0x0020204411006020L, 0x0862447802104005L,
+            0x628282480090080AL, 0x1000008400880400L, 0x0010000D04210440L, 0x0004300480460800L,
+            0x0884430010021210L, 0x1040006072900240L, 0x0000210204080C80L, 0x0108014102020A00L
+    };
+
+    private static final int[][] ROOK_DIRECTIONS = {{1, 0}, {-1, 0}, {0, 1}, {0, -1}};
+    private static final int[][] BISHOP_DIRECTIONS = {{1, 1}, {1, -1}, {-1, 1}, {-1, -1}};
+
+    private static final long[] ROOK_MASKS = new long[64];
+    private static final long[] BISHOP_MASKS = new long[64];
+    private static final int[] ROOK_SHIFTS = new int[64];
+    private static final int[] BISHOP_SHIFTS = new int[64];
+    private static final int[] ROOK_OFFSETS = new int[64];
+    private static final int[] BISHOP_OFFSETS = new int[64];
+    private static final long[] ROOK_ATTACKS;
+    private static final long[] BISHOP_ATTACKS;
+
+    private static final int[][] KNIGHT_JUMPS = {
+            {2, 1}, {2, -1}, {-2, 1}, {-2, -1},
+            {1, 2}, {1, -2}, {-1, 2}, {-1, -2}
+    };
+    private static final int[][] KING_STEPS = {
+            {1, 0}, {-1, 0}, {0, 1}, {0, -1},
+            {1, 1}, {1, -1}, {-1, 1}, {-1, -1}
+    };
+    private static final int[][] WHITE_PAWN_CAPTURES = {{1, -1}, {1, 1}};
+    private static final int[][] BLACK_PAWN_CAPTURES = {{-1, -1}, {-1, 1}};
+
+    private static final long[] KNIGHT_ATTACKS = new long[64];
+    private static final long[] KING_ATTACKS = new long[64];
+    private static final long[][] PAWN_ATTACKS = new long[2][64];
+    private static final long[][] BETWEEN = new long[64][64];
+    private static final long[][] LINE = new long[64][64];
+
+    static {
+        ROOK_ATTACKS = new long[fillMasks(ROOK_DIRECTIONS, ROOK_MASKS, ROOK_SHIFTS, ROOK_OFFSETS)];
+        BISHOP_ATTACKS = new long[fillMasks(BISHOP_DIRECTIONS, BISHOP_MASKS, BISHOP_SHIFTS, BISHOP_OFFSETS)];
+        for (int square = 0; square < 64; square++) {
+            fillAttacks(square, ROOK_DIRECTIONS, ROOK_MASKS, ROOK_MAGICS, ROOK_SHIFTS, ROOK_OFFSETS, ROOK_ATTACKS);
+            fillAttacks(square, BISHOP_DIRECTIONS, BISHOP_MASKS, BISHOP_MAGICS, BISHOP_SHIFTS, BISHOP_OFFSETS,
+                    BISHOP_ATTACKS);
+            KNIGHT_ATTACKS[square] = stepAttacks(square, KNIGHT_JUMPS);
+            KING_ATTACKS[square] = stepAttacks(square, KING_STEPS);
+            PAWN_ATTACKS[ChessGame.TeamColor.WHITE.ordinal()][square] = stepAttacks(square, WHITE_PAWN_CAPTURES);
+            PAWN_ATTACKS[ChessGame.TeamColor.BLACK.ordinal()][square] = stepAttacks(square, BLACK_PAWN_CAPTURES);
+        }
+        for (int from = 0; from < 64; from++) {
+            fillLines(from, ROOK_DIRECTIONS);
+            fillLines(from, BISHOP_DIRECTIONS);
+        }
+    }
+
+    private AttackTables() {
+    }
+
+    /**
+     * @param square   square the rook stands on
+     * @param occupied bitboard of every occupied square
+     * @return squares a rook attacks, including the first blocker on each ray
+     */
+    public static long rookAttacks(int square, long occupied) {
+        int index = (int) (((occupied & ROOK_MASKS[square]) * ROOK_MAGICS[square]) >>> ROOK_SHIFTS[square]);
+        return ROOK_ATTACKS[ROOK_OFFSETS[square] + index];
+    }
+
+    /**
+     * @param square   square the bishop stands on
+     * @param occupied bitboard of every occupied square
+     * @return squares a bishop attacks, including the first blocker on each ray
+     */
+    public static long bishopAttacks(int square, long occupied) {
+        int index = (int) (((occupied & BISHOP_MASKS[square]) * BISHOP_MAGICS[square]) >>> BISHOP_SHIFTS[square]);
+        return BISHOP_ATTACKS[BISHOP_OFFSETS[square] + index];
+    }
+
+    /**
+     * @param square   square the queen stands on
+     * @param occupied bitboard of every occupied square
+     * @return squares a queen attacks, including the first blocker on each ray
+     */
+    public static long queenAttacks(int square, long occupied) {
+        return rookAttacks(square, occupied) | bishopAttacks(square, occupied);
+    }
+
+    /**
+     * @return squares a knight on the given square attacks
+     */
+    public static long knightAttacks(int square) {
+        return KNIGHT_ATTACKS[square];
+    }
+
+    /**
+     * @return squares a king on the given square attacks
+     */
+    public static long kingAttacks(int square) {
+        return KING_ATTACKS[square];
+    }
+
+    /**
+     * @return the two (or one, on an edge file) squares a pawn of the given team attacks
+     */
+    public static long pawnAttacks(ChessGame.TeamColor color, int square) {
+        return PAWN_ATTACKS[color.ordinal()][square];
+    }
+
+    /**
+     * @return squares strictly between two squares on a shared rank, file or diagonal,
+     * or 0 if they are not aligned
+     */
+    public static long between(int from, int to) {
+        return BETWEEN[from][to];
+    }
+
+    /**
+     * @return every square on the full rank, file or diagonal through both squares,
+     * or 0 if they are not aligned
+     */
+    public static long line(int from, int to) {
+        return LINE[from][to];
+    }
+
+    /**
+     * Finds every piece of the attacking team that attacks a square, looking outward
+     * from the square itself.
+     *
+     * @param board    board holding the attackers
+     * @param square   target square
+     * @param occupied occupancy to use for slider blocking, which callers may alter
+     *                 (for example by lifting a king off the board)
+     * @param attacker team whose pieces are looked for
+     * @return bitboard of the attacking pieces
+     */
+    public static long attackersTo(ChessBoard board, int square, long occupied, ChessGame.TeamColor attacker) {
+        ChessGame.TeamColor defender = attacker == ChessGame.TeamColor.WHITE
+                ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+        long queens = board.getPieceBitboard(attacker, ChessPiece.PieceType.QUEEN);
+        long rookLike = board.getPieceBitboard(attacker, ChessPiece.PieceType.ROOK) | queens;
+        long bishopLike = board.getPieceBitboard(attacker, ChessPiece.PieceType.BISHOP) | queens;
+        return (KNIGHT_ATTACKS[square] & board.getPieceBitboard(attacker, ChessPiece.PieceType.KNIGHT))
+                | (KING_ATTACKS[square] & board.getPieceBitboard(attacker, ChessPiece.PieceType.KING))
+                | (PAWN_ATTACKS[defender.ordinal()][square] & board.getPieceBitboard(attacker, ChessPiece.PieceType.PAWN))
+                | (rookAttacks(square, occupied) & rookLike)
+                | (bishopAttacks(square, occupied) & bishopLike);
+    }
+
+    /**
+     * Tells whether any piece of the attacking team attacks a square. Works outward
+     * from the square: pawn diagonals, knight jumps and king steps first, then the
+     * first blocker on each rook and bishop ray, stopping at the first attacker found.
+     *
+     * @param board    board holding the attackers
+     * @param square   target square
+     * @param occupied occupancy to use for slider blocking
+     * @param attacker team whose pieces are looked for
+     * @return true if the square is attacked
+     */
+    public static boolean isSquareAttacked(ChessBoard board, int square, long occupied,
+                                           ChessGame.TeamColor attacker) {
+        ChessGame.TeamColor defender = attacker == ChessGame.TeamColor.WHITE
+                ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+        if ((PAWN_ATTACKS[defender.ordinal()][square]
+                & board.getPieceBitboard(attacker, ChessPiece.PieceType.PAWN)) != 0) {
+            return true;
+        }
+        if ((KNIGHT_ATTACKS[square] & board.getPieceBitboard(attacker, ChessPiece.PieceType.KNIGHT)) != 0) {
+            return true;
+        }
+        if ((KING_ATTACKS[square] & board.getPieceBitboard(attacker, ChessPiece.PieceType.KING)) != 0) {
+            return true;
+        }
+        long queens = board.getPieceBitboard(attacker, ChessPiece.PieceType.QUEEN);
+        long rookLike = board.getPieceBitboard(attacker, ChessPiece.PieceType.ROOK) | queens;
+        if (rookLike != 0 && (rookAttacks(square, occupied) & rookLike) != 0) {
+            return true;
+        }
+        long bishopLike = board.getPieceBitboard(attacker, ChessPiece.PieceType.BISHOP) | queens;
+        return bishopLike != 0 && (bishopAttacks(square, occupied) & bishopLike) != 0;
+    }
+
+    /**
+     * Computes each square's relevant-blocker mask and table slice.
+     *
+     * @return total number of table entries needed
+     */
+    private static int fillMasks(int[][] directions, long[] masks, int[] shifts, int[] offsets) {
+        int size = 0;
+        for (int square = 0; square < 64; square++) {
+            long mask = 0L;
+            for (int[] dir : directions) {
+                int row = (square >>> 3) + dir[0];
+                int col = (square & 7) + dir[1];
+                // the last square on a ray never blocks anything behind it
+                while (inside(row + dir[0], col + dir[1])) {
+                    mask |= 1L << (row * 8 + col);
+                    row += dir[0];
+                    col += dir[1];
+                }
+            }
+            int bits = Long.bitCount(mask);
+            masks[square] = mask;
+            shifts[square] = 64 - bits;
+            offsets[square] = size;
+            size += 1 << bits;
+        }
+        return size;
+    }
+
+    private static void fillAttacks(int square, int[][] directions, long[] masks, long[] magics,
+                                    int[] shifts, int[] offsets, long[] table) {
+        long mask = masks[square];
+        long blockers = 0L;
+        // enumerate every subset of the mask (carry-rippler)
+        do {
+            int index = (int) ((blockers * magics[square]) >>> shifts[square]);
+            table[offsets[square] + index] = slowAttacks(square, blockers, directions);
+            blockers = (blockers - mask) & mask;
+        } while (blockers != 0);
+    }
+
+    private static long slowAttacks(int square, long occupied, int[][] directions) {
+        long attacks = 0L;
+        for (int[] dir : directions) {
+            int row = (square >>> 3) + dir[0];
+            int col = (square & 7) + dir[1];
+            while (inside(row, col)) {
+                long bit = 1L << (row * 8 + col);
+                attacks |= bit;
+                if ((occupied & bit) != 0) {
+                    break;
+                }
+                row += dir[0];
+                col += dir[1];
+            }
+        }
+        return attacks;
+    }
+
+    private static long stepAttacks(int square, int[][] steps) {
+        long attacks = 0L;
+        for (int[] step : steps) {
+            int row = (square >>> 3) + step[0];
+            int col = (square & 7) + step[1];
+            if (inside(row, col)) {
+                attacks |= 1L << (row * 8 + col);
+            }
+        }
+        return attacks;
+    }
+
+    private static void fillLines(int from, int[][] directions) {
+        for (int[] dir : directions) {
+            long ray = slowAttacks(from, 0L, new int[][]{dir});
+            long backRay = slowAttacks(from, 0L, new int[][]{{-dir[0], -dir[1]}});
+            long fullLine = ray | backRay | (1L << from);
+            long passed = 0L;
+            int row = (from >>> 3) + dir[0];
+            int col = (from & 7) + dir[1];
+            while (inside(row, col)) {
+                int to = row * 8 + col;
+                BETWEEN[from][to] = passed;
+                LINE[from][to] = fullLine;
+                passed |= 1L << to;
+                row += dir[0];
+                col += dir[1];
+            }
+        }
+    }
+
+    private static boolean inside(int row, int col) {
+        return row >= 0 && row < 8 && col >= 0 && col < 8;
+    }
+}
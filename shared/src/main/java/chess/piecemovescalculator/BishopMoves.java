@@ -2,26 +2,15 @@ package chess.piecemovescalculator;
 
 import chess.*;
 
-import java.util.ArrayList;
-import java.util.Collection;
-
-
 public class BishopMoves extends MovesCalculator {
 
     @Override
-    public Collection<ChessMove> allPossibleMoves(ChessBoard board, ChessPosition startPos) {
-        Collection<ChessMove> bishopMoves = new ArrayList<>();
-
-        int[][] diagonals = {
-                {1, 1},   // up-right
-                {1, -1},  // up-left
-                {-1, 1},  // down-right
-                {-1, -1}  // down-left
-        };
-
-        for (int[] diag : diagonals) {
-            bishopMoves.addAll(gatherMovesInDirection(board, startPos, diag[0], diag[1], true));
+    public void generateMoves(ChessBoard board, int from, long targetMask, MoveList moves) {
+        ChessPiece self = board.getPiece(from);
+        if (self == null) {
+            return;
         }
-        return bishopMoves;
+        long attacks = AttackTables.bishopAttacks(from, board.getOccupiedBitboard());
+        addTargets(board, from, attacks & notOwnPieces(board, self) & targetMask, moves);
     }
 }
@@ -2,35 +2,53 @@ package chess.piecemovescalculator;
 
 import chess.*;
 
-import java.util.ArrayList;
-import java.util.Collection;
-
 public class KingMoves extends MovesCalculator {
 
     @Override
-    public Collection<ChessMove> allPossibleMoves(ChessBoard board, ChessPosition startPos) {
-        Collection<ChessMove> kingMoves = new ArrayList<>();
-        ChessPiece self = board.getPiece(startPos);
+    public void generateMoves(ChessBoard board, int from, long targetMask, MoveList moves) {
+        ChessPiece self = board.getPiece(from);
         if (self == null) {
-            return kingMoves;
+            return;
         }
+        long targets = AttackTables.kingAttacks(from) & notOwnPieces(board, self) & targetMask;
+        addTargets(board, from, targets, moves);
+    }
 
-        int[][] kingSteps = {
-                {1, 0}, {-1, 0}, {0, 1}, {0, -1},
-                {1, 1}, {1, -1}, {-1, 1}, {-1, -1}
-        };
-
-        for (int[] step : kingSteps) {
-            int row = startPos.getRow() + step[0];
-            int col = startPos.getColumn() + step[1];
-            if (onBoard(row, col)) {
-                ChessPosition checkPos = new ChessPosition(row, col);
-                if (!occupied(board, checkPos)
-                        || canCapture(board, startPos, checkPos)) {
-                    kingMoves.add(new ChessMove(startPos, checkPos, null));
-                }
+    /**
+     * Appends the castling moves a team may make. Each right is a handful of mask tests:
+     * the king and rook are still on their squares, nothing stands between them, and
+     * neither the square the king crosses nor the one it lands on is attacked.
+     *
+     * @param rights castling rights of the game, see {@link CastlingRights}
+     * @param inCheck whether the team's king is attacked; a king in check cannot castle
+     */
+    static void generateCastling(ChessBoard board, ChessGame.TeamColor color, int rights, boolean inCheck,
+                                 MoveList moves) {
+        rights &= CastlingRights.of(color);
+        if (rights == 0 || inCheck) {
+            return;
+        }
+        ChessGame.TeamColor enemy = (color == ChessGame.TeamColor.WHITE)
+                ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+        long occupied = board.getOccupiedBitboard();
+        long kings = board.getPieceBitboard(color, ChessPiece.PieceType.KING);
+        long rooks = board.getPieceBitboard(color, ChessPiece.PieceType.ROOK);
+        while (rights != 0) {
+            int right = Integer.lowestOneBit(rights);
+            rights &= rights - 1;
+            int kingFrom = CastlingRights.kingFrom(right);
+            int kingTo = CastlingRights.kingTo(right);
+            int rookFrom = CastlingRights.rookFrom(right);
+            if ((kings & (1L << kingFrom)) == 0 || (rooks & (1L << rookFrom)) == 0
+                    || (AttackTables.between(kingFrom, rookFrom) & occupied) != 0) {
+                continue;
+            }
+            int crossed = (kingFrom + kingTo) / 2;
+            if (AttackTables.isSquareAttacked(board, crossed, occupied, enemy)
+                    || AttackTables.isSquareAttacked(board, kingTo, occupied, enemy)) {
+                continue;
             }
+            moves.add(PackedMove.encode(kingFrom, kingTo, PackedMove.CASTLE));
         }
-        return kingMoves;
     }
-}
\ No newline at end of file
+}
@@ -2,33 +2,14 @@ package chess.piecemovescalculator;
 
 import chess.*;
 
-import java.util.ArrayList;
-import java.util.Collection;
-
 public class KnightMoves extends MovesCalculator {
     @Override
-    public Collection<ChessMove> allPossibleMoves(ChessBoard board, ChessPosition startPos) {
-        Collection<ChessMove> knightMoves = new ArrayList<>();
-        ChessPiece self = board.getPiece(startPos);
+    public void generateMoves(ChessBoard board, int from, long targetMask, MoveList moves) {
+        ChessPiece self = board.getPiece(from);
         if (self == null) {
-            return knightMoves;
-        }
-
-        int[][] knightJumps = {
-                {2, 1}, {2, -1}, {-2, 1}, {-2, -1},
-                {1, 2}, {1, -2}, {-1, 2}, {-1, -2}
-        };
-
-        for (int[] jump : knightJumps) {
-            int newRow = startPos.getRow() + jump[0];
-            int newCol = startPos.getColumn() + jump[1];
-            if (onBoard(newRow, newCol)) {
-                ChessPosition potential = new ChessPosition(newRow, newCol);
-                if (!occupied(board, potential) || canCapture(board, startPos, potential)) {
-                    knightMoves.add(new ChessMove(startPos, potential, null));
-                }
-            }
+            return;
         }
-        return knightMoves;
+        long targets = AttackTables.knightAttacks(from) & notOwnPieces(board, self) & targetMask;
+        addTargets(board, from, targets, moves);
     }
-}
\ No newline at end of file
+}
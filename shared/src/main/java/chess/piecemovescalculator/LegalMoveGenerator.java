@@ -0,0 +1,182 @@
+package chess.piecemovescalculator;
+
+import chess.*;
+
+import java.util.Collection;
+
+/**
+ * Generates fully legal moves for one team without playing any of them out.
+ * <p>
+ * The constructor looks outward from the team's king once to find the pieces giving
+ * check and the pieces pinned against it. Those become target masks handed to the
+ * per-piece generators, so only legal moves are ever emitted:
+ * <ul>
+ *     <li>in double check only the king may move;</li>
+ *     <li>in single check other pieces must capture the checker or block its line;</li>
+ *     <li>a pinned piece must stay on the line through its king;</li>
+ *     <li>the king may not step onto an attacked square, judged with the king lifted
+ *     off the board so it cannot hide behind itself from a slider.</li>
+ * </ul>
+ * Castling and en passant depend on game state rather than the board alone, so they
+ * are only generated when the game passes its castling rights and en passant square in.
+ */
+public class LegalMoveGenerator {
+
+    private final ChessBoard board;
+    private final ChessGame.TeamColor color;
+    private final ChessGame.TeamColor enemy;
+    private final int kingSquare;
+    private final long checkers;
+    private final long checkMask;
+    private final long pinned;
+    private final int castlingRights;
+    private final int enPassantSquare;
+
+    public LegalMoveGenerator(ChessBoard board, ChessGame.TeamColor color) {
+        this(board, color, CastlingRights.NONE, -1);
+    }
+
+    /**
+     * @param castlingRights  rights still held, see {@link CastlingRights}
+     * @param enPassantSquare square a pawn of {@code color} may capture onto en passant, or -1
+     */
+    public LegalMoveGenerator(ChessBoard board, ChessGame.TeamColor color, int castlingRights,
+                              int enPassantSquare) {
+        this.board = board;
+        this.color = color;
+        this.castlingRights = castlingRights;
+        this.enPassantSquare = enPassantSquare;
+        this.enemy = (color == ChessGame.TeamColor.WHITE) ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+
+        kingSquare = board.getKingSquare(color);
+        if (kingSquare < 0) {
+            // boards without a king (e.g. piece tests) have no checks or pins
+            checkers = 0L;
+            checkMask = -1L;
+            pinned = 0L;
+            return;
+        }
+        long occupied = board.getOccupiedBitboard();
+        checkers = AttackTables.attackersTo(board, kingSquare, occupied, enemy);
+
+        if (checkers == 0) {
+            checkMask = -1L;
+        } else if (Long.bitCount(checkers) == 1) {
+            checkMask = checkers | AttackTables.between(kingSquare, Long.numberOfTrailingZeros(checkers));
+        } else {
+            checkMask = 0L;
+        }
+        pinned = findPinned(occupied);
+    }
+
+    /**
+     * @return true if the team's king is attacked
+     */
+    public boolean inCheck() {
+        return checkers != 0;
+    }
+
+    /**
+     * @param startPosition square of a piece belonging to this generator's team
+     * @return every legal move for that piece
+     */
+    public Collection<ChessMove> legalMoves(ChessPosition startPosition) {
+        MoveList moves = new MoveList();
+        generateLegalMoves(ChessBoard.squareIndex(startPosition), moves);
+        return moves.toChessMoves();
+    }
+
+    /**
+     * Appends every legal move of the team to a move list
+     */
+    public void generateLegalMoves(MoveList moves) {
+        long pieces = board.getTeamBitboard(color);
+        while (pieces != 0) {
+            int square = Long.numberOfTrailingZeros(pieces);
+            pieces &= pieces - 1;
+            generateLegalMoves(square, moves);
+        }
+    }
+
+    /**
+     * Appends the legal moves of the piece on one square to a move list
+     */
+    public void generateLegalMoves(int from, MoveList moves) {
+        ChessPiece piece = board.getPiece(from);
+        if (piece == null) {
+            return;
+        }
+        piece.generateMoves(board, from, targetMask(from), moves);
+        if (from == kingSquare && castlingRights != CastlingRights.NONE) {
+            KingMoves.generateCastling(board, color, castlingRights, inCheck(), moves);
+        } else if (piece.getPieceType() == ChessPiece.PieceType.PAWN && enPassantSquare >= 0) {
+            PawnMoves.generateEnPassant(board, from, enPassantSquare, kingSquare, moves);
+        }
+    }
+
+    /**
+     * @return true if the team has at least one legal move
+     */
+    public boolean hasAnyLegalMove() {
+        MoveList moves = new MoveList();
+        long pieces = board.getTeamBitboard(color);
+        while (pieces != 0) {
+            int square = Long.numberOfTrailingZeros(pieces);
+            pieces &= pieces - 1;
+            generateLegalMoves(square, moves);
+            if (!moves.isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the squares a move from the given square may end on
+     */
+    private long targetMask(int from) {
+        if (from == kingSquare) {
+            return safeKingSquares();
+        }
+        if ((pinned & (1L << from)) != 0) {
+            return checkMask & AttackTables.line(kingSquare, from);
+        }
+        return checkMask;
+    }
+
+    private long safeKingSquares() {
+        long withoutKing = board.getOccupiedBitboard() & ~(1L << kingSquare);
+        long candidates = AttackTables.kingAttacks(kingSquare) & ~board.getTeamBitboard(color);
+        long safe = 0L;
+        while (candidates != 0) {
+            int to = Long.numberOfTrailingZeros(candidates);
+            candidates &= candidates - 1;
+            if (!AttackTables.isSquareAttacked(board, to, withoutKing, enemy)) {
+                safe |= 1L << to;
+            }
+        }
+        return safe;
+    }
+
+    private long findPinned(long occupied) {
+        long enemyQueens = board.getPieceBitboard(enemy, ChessPiece.PieceType.QUEEN);
+        long enemyPieces = board.getTeamBitboard(enemy);
+        // look through our own pieces to find enemy sliders lined up on the king
+        long snipers = (AttackTables.rookAttacks(kingSquare, enemyPieces)
+                & (board.getPieceBitboard(enemy, ChessPiece.PieceType.ROOK) | enemyQueens))
+                | (AttackTables.bishopAttacks(kingSquare, enemyPieces)
+                & (board.getPieceBitboard(enemy, ChessPiece.PieceType.BISHOP) | enemyQueens));
+
+        long own = board.getTeamBitboard(color);
+        long result = 0L;
+        while (snipers != 0) {
+            int sniper = Long.numberOfTrailingZeros(snipers);
+            snipers &= snipers - 1;
+            long blockers = AttackTables.between(kingSquare, sniper) & occupied;
+            if (Long.bitCount(blockers) == 1 && (blockers & own) != 0) {
+                result |= blockers;
+            }
+        }
+        return result;
+    }
+}
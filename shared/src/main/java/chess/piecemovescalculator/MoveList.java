@@ -0,0 +1,61 @@
+package chess.piecemovescalculator;
+
+import chess.ChessMove;
+
+import java.util.ArrayList;
+import java.util.Collection;
+
+/**
+ * A reusable, growable buffer of {@link PackedMove} ints. Callers that generate moves
+ * repeatedly keep one list and {@link #clear()} it between positions, so generation
+ * itself allocates nothing.
+ */
+public final class MoveList {
+
+    private int[] moves;
+    private int size;
+
+    public MoveList() {
+        this(64);
+    }
+
+    public MoveList(int initialCapacity) {
+        moves = new int[Math.max(initialCapacity, 1)];
+    }
+
+    public void add(int move) {
+        if (size == moves.length) {
+            int[] grown = new int[moves.length * 2];
+            System.arraycopy(moves, 0, grown, 0, size);
+            moves = grown;
+        }
+        moves[size++] = move;
+    }
+
+    public int get(int index) {
+        return moves[index];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * @return the moves as {@link ChessMove} objects, for the public API
+     */
+    public Collection<ChessMove> toChessMoves() {
+        Collection<ChessMove> result = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            result.add(PackedMove.toChessMove(moves[i]));
+        }
+        return result;
+    }
+}
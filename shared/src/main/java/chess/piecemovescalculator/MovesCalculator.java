@@ -2,70 +2,71 @@ package chess.piecemovescalculator;
 
 import chess.*;
 
-import java.util.ArrayList;
 import java.util.Collection;
 
+/**
+ * Base for the per-piece move generators. Calculators hold no state, so one shared
+ * instance per piece type serves every board; look them up with {@link #forType}.
+ */
 public class MovesCalculator {
 
-    public Collection<ChessMove> allPossibleMoves(ChessBoard board, ChessPosition startPos) {
-        return new ArrayList<>();
-    }
+    private static final MovesCalculator[] BY_TYPE = new MovesCalculator[ChessPiece.PieceType.values().length];
 
-    protected boolean onBoard(int row, int col) {
-        return row >= 1 && row <= 8 && col >= 1 && col <= 8;
+    static {
+        BY_TYPE[ChessPiece.PieceType.KING.ordinal()] = new KingMoves();
+        BY_TYPE[ChessPiece.PieceType.QUEEN.ordinal()] = new QueenMoves();
+        BY_TYPE[ChessPiece.PieceType.BISHOP.ordinal()] = new BishopMoves();
+        BY_TYPE[ChessPiece.PieceType.KNIGHT.ordinal()] = new KnightMoves();
+        BY_TYPE[ChessPiece.PieceType.ROOK.ordinal()] = new RookMoves();
+        BY_TYPE[ChessPiece.PieceType.PAWN.ordinal()] = new PawnMoves();
     }
 
-
-    protected boolean occupied(ChessBoard board, ChessPosition toPos) {
-        return (board.getPiece(toPos) != null);
+    /**
+     * @return the shared calculator for a piece type
+     */
+    public static MovesCalculator forType(ChessPiece.PieceType type) {
+        return BY_TYPE[type.ordinal()];
     }
 
-
-    protected boolean canCapture(ChessBoard board, ChessPosition fromPos, ChessPosition toPos) {
-        ChessPiece fromPiece = board.getPiece(fromPos);
-        ChessPiece toPiece = board.getPiece(toPos);
-
-        if (fromPiece == null || toPiece == null) {
-            return false;
-        }
-        return fromPiece.getTeamColor() != toPiece.getTeamColor();
+    /**
+     * Builds the pseudo-legal moves for the piece on a square as {@link ChessMove}s.
+     * This is the public edge; generation itself works on packed ints.
+     */
+    public Collection<ChessMove> allPossibleMoves(ChessBoard board, ChessPosition startPos) {
+        MoveList moves = new MoveList();
+        generateMoves(board, ChessBoard.squareIndex(startPos), -1L, moves);
+        return moves.toChessMoves();
     }
 
-    protected Collection<ChessMove> gatherMovesInDirection(
-            ChessBoard board,
-            ChessPosition origin,
-            int dRow,
-            int dCol,
-            boolean keepGoing
-    ) {
-        Collection<ChessMove> movesFound = new ArrayList<>();
-
-        int row = origin.getRow();
-        int col = origin.getColumn();
-
-        while (true) {
-            row += dRow;
-            col += dCol;
-
-            if (!onBoard(row, col)) {
-                break;
-            }
-            ChessPosition nextPos = new ChessPosition(row, col);
-            ChessMove nextMove = new ChessMove(origin, nextPos, null);
+    /**
+     * Appends the pseudo-legal moves for the piece on a square to a move list.
+     *
+     * @param board      board to generate on
+     * @param from       square of the piece to move
+     * @param targetMask only moves ending on one of these squares are added; pass -1 for all
+     * @param moves      list the packed moves are appended to
+     */
+    public void generateMoves(ChessBoard board, int from, long targetMask, MoveList moves) {
+    }
 
-            if (occupied(board, nextPos)) {
-                if (canCapture(board, origin, nextPos)) {
-                    movesFound.add(nextMove);
-                }
-                break;
-            } else {
-                movesFound.add(nextMove);
-                if (!keepGoing) {
-                    break;
-                }
-            }
+    /**
+     * Adds a move from the start square to every square set in the target bitboard,
+     * flagging the ones that land on a piece as captures.
+     */
+    protected void addTargets(ChessBoard board, int from, long targets, MoveList moves) {
+        long occupied = board.getOccupiedBitboard();
+        while (targets != 0) {
+            int to = Long.numberOfTrailingZeros(targets);
+            targets &= targets - 1;
+            int flags = ((occupied >>> to) & 1L) != 0 ? PackedMove.CAPTURE : 0;
+            moves.add(PackedMove.encode(from, to, flags));
         }
+    }
 
-        return movesFound;
+    /**
+     * @return bitboard of squares a piece could stop on: empty or held by the enemy
+     */
+    protected long notOwnPieces(ChessBoard board, ChessPiece self) {
+        return ~board.getTeamBitboard(self.getTeamColor());
     }
 }
@@ -0,0 +1,80 @@
+package chess.piecemovescalculator;
+
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+
+/**
+ * Encodes a move in a single {@code int} so move generation can fill a plain array
+ * instead of allocating {@link ChessMove} objects.
+ * <pre>
+ * bits  0-5   start square (0 = a1, 63 = h8)
+ * bits  6-11  end square
+ * bits 12-14  promotion piece: 0 for none, otherwise PieceType ordinal + 1
+ * bits 15-    flags
+ * </pre>
+ */
+public final class PackedMove {
+
+    /** The end square held an enemy piece. */
+    public static final int CAPTURE = 1 << 15;
+    /** A pawn moved two squares from its starting row. */
+    public static final int DOUBLE_PAWN_PUSH = 1 << 16;
+    /** A pawn captured en passant; the captured pawn is beside the start square, not on the end square. */
+    public static final int EN_PASSANT = 1 << 17;
+    /** A king castled; the rook moves as well. */
+    public static final int CASTLE = 1 << 18;
+
+    private static final ChessPiece.PieceType[] PIECE_TYPES = ChessPiece.PieceType.values();
+
+    private PackedMove() {
+    }
+
+    public static int encode(int from, int to, int flags) {
+        return from | (to << 6) | flags;
+    }
+
+    public static int encode(int from, int to, ChessPiece.PieceType promotion, int flags) {
+        return from | (to << 6) | ((promotion.ordinal() + 1) << 12) | flags;
+    }
+
+    /**
+     * Encodes a {@link ChessMove}. Flags are not known without a board, so none are set.
+     */
+    public static int encode(ChessMove move) {
+        int from = squareOf(move.getStartPosition());
+        int to = squareOf(move.getEndPosition());
+        if (move.getPromotionPiece() == null) {
+            return encode(from, to, 0);
+        }
+        return encode(from, to, move.getPromotionPiece(), 0);
+    }
+
+    public static int from(int move) {
+        return move & 63;
+    }
+
+    public static int to(int move) {
+        return (move >>> 6) & 63;
+    }
+
+    /**
+     * @return the promotion piece type, or null if the move is not a promotion
+     */
+    public static ChessPiece.PieceType promotion(int move) {
+        int code = (move >>> 12) & 7;
+        return code == 0 ? null : PIECE_TYPES[code - 1];
+    }
+
+    /**
+     * Builds the public {@link ChessMove} form, using the shared position instances.
+     */
+    public static ChessMove toChessMove(int move) {
+        return new ChessMove(ChessPosition.ofSquare(from(move)), ChessPosition.ofSquare(to(move)),
+                promotion(move));
+    }
+
+    private static int squareOf(ChessPosition position) {
+        return (position.getRow() - 1) * 8 + (position.getColumn() - 1);
+    }
+}
@@ -2,74 +2,93 @@ package chess.piecemovescalculator;
 
 import chess.*;
 
-import java.util.ArrayList;
-import java.util.Collection;
-
 public class PawnMoves extends MovesCalculator {
+
+    private static final ChessPiece.PieceType[] PROMOTIONS = {
+            ChessPiece.PieceType.QUEEN,
+            ChessPiece.PieceType.BISHOP,
+            ChessPiece.PieceType.KNIGHT,
+            ChessPiece.PieceType.ROOK
+    };
+
     @Override
-    public Collection<ChessMove> allPossibleMoves(ChessBoard board, ChessPosition startPos) {
-        Collection<ChessMove> moves = new ArrayList<>();
-        ChessPiece pawn = board.getPiece(startPos);
+    public void generateMoves(ChessBoard board, int from, long targetMask, MoveList moves) {
+        ChessPiece pawn = board.getPiece(from);
 
         if (pawn == null) {
-            return moves;
+            return;
         }
 
         boolean isWhite = (pawn.getTeamColor() == ChessGame.TeamColor.WHITE);
-        int step = isWhite ? 1 : -1;
+        int step = isWhite ? 8 : -8;
+        int row = (from >>> 3) + 1;
+        long occupied = board.getOccupiedBitboard();
 
-        int row = startPos.getRow();
-        int col = startPos.getColumn();
+        int oneForward = from + step;
+        if (oneForward >= 0 && oneForward < 64 && ((occupied >>> oneForward) & 1L) == 0) {
+            if (((targetMask >>> oneForward) & 1L) != 0) {
+                addPawnMove(from, oneForward, isWhite, 0, moves);
+            }
 
-        int oneForwardRow = row + step;
-        if (onBoard(oneForwardRow, col)) {
-            ChessPosition oneForward = new ChessPosition(oneForwardRow, col);
-            if (!occupied(board, oneForward)) {
-                if (isPromotionRank(oneForwardRow, isWhite)) {
-                    moves.addAll(createPromotions(startPos, oneForward));
-                } else {
-                    moves.add(new ChessMove(startPos, oneForward, null));
-                }
+            boolean isStartingRow = (isWhite && row == 2) || (!isWhite && row == 7);
+            int twoForward = oneForward + step;
+            if (isStartingRow && ((occupied >>> twoForward) & 1L) == 0
+                    && ((targetMask >>> twoForward) & 1L) != 0) {
+                moves.add(PackedMove.encode(from, twoForward, PackedMove.DOUBLE_PAWN_PUSH));
+            }
+        }
 
-                boolean isStartingRow = (isWhite && row == 2) || (!isWhite && row == 7);
-                if (isStartingRow) {
-                    int twoForwardRow = row + (2 * step);
-                    ChessPosition twoForward = new ChessPosition(twoForwardRow, col);
-                    if (onBoard(twoForwardRow, col) && !occupied(board, twoForward)) {
-                        moves.add(new ChessMove(startPos, twoForward, null));
-                    }
-                }
+        ChessGame.TeamColor enemy = isWhite ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+        long captures = AttackTables.pawnAttacks(pawn.getTeamColor(), from)
+                & board.getTeamBitboard(enemy) & targetMask;
+        while (captures != 0) {
+            int to = Long.numberOfTrailingZeros(captures);
+            captures &= captures - 1;
+            addPawnMove(from, to, isWhite, PackedMove.CAPTURE, moves);
+        }
+    }
+
+    /**
+     * Appends the en passant capture for the pawn on {@code from}, if it has one. The
+     * capture lifts two pawns off one rank at once, which a pin mask cannot see, so
+     * legality is judged directly: after the capture nothing but the captured pawn may
+     * attack the king.
+     *
+     * @param enPassantSquare the square behind a pawn that just moved two squares, or -1
+     * @param kingSquare      square of the capturing team's king, or -1 if it has none
+     */
+    static void generateEnPassant(ChessBoard board, int from, int enPassantSquare, int kingSquare,
+                                  MoveList moves) {
+        ChessPiece pawn = board.getPiece(from);
+        if (enPassantSquare < 0 || pawn == null
+                || (AttackTables.pawnAttacks(pawn.getTeamColor(), from) & (1L << enPassantSquare)) == 0) {
+            return;
+        }
+        int capturedSquare = (from & ~7) | (enPassantSquare & 7);
+        if (kingSquare >= 0) {
+            ChessGame.TeamColor enemy = (pawn.getTeamColor() == ChessGame.TeamColor.WHITE)
+                    ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+            long occupied = (board.getOccupiedBitboard() & ~(1L << from) & ~(1L << capturedSquare))
+                    | (1L << enPassantSquare);
+            long attackers = AttackTables.attackersTo(board, kingSquare, occupied, enemy) & ~(1L << capturedSquare);
+            if (attackers != 0) {
+                return;
             }
         }
+        moves.add(PackedMove.encode(from, enPassantSquare, PackedMove.CAPTURE | PackedMove.EN_PASSANT));
+    }
 
-        int[][] diagonalOffsets = {{step, -1}, {step, 1}};
-        for (int[] offset : diagonalOffsets) {
-            int newRow = row + offset[0];
-            int newCol = col + offset[1];
-            if (onBoard(newRow, newCol)) {
-                ChessPosition diagPos = new ChessPosition(newRow, newCol);
-                if (canCapture(board, startPos, diagPos)) {
-                    if (isPromotionRank(newRow, isWhite)) {
-                        moves.addAll(createPromotions(startPos, diagPos));
-                    } else {
-                        moves.add(new ChessMove(startPos, diagPos, null));
-                    }
-                }
+    private void addPawnMove(int from, int to, boolean isWhitePawn, int flags, MoveList moves) {
+        if (isPromotionRank((to >>> 3) + 1, isWhitePawn)) {
+            for (ChessPiece.PieceType promotion : PROMOTIONS) {
+                moves.add(PackedMove.encode(from, to, promotion, flags));
             }
+        } else {
+            moves.add(PackedMove.encode(from, to, flags));
         }
-        return moves;
     }
 
     private boolean isPromotionRank(int row, boolean isWhitePawn) {
         return (isWhitePawn && row == 8) || (!isWhitePawn && row == 1);
     }
-
-    private Collection<ChessMove> createPromotions(ChessPosition fromPos, ChessPosition toPos) {
-        Collection<ChessMove> promos = new ArrayList<>();
-        promos.add(new ChessMove(fromPos, toPos, ChessPiece.PieceType.QUEEN));
-        promos.add(new ChessMove(fromPos, toPos, ChessPiece.PieceType.BISHOP));
-        promos.add(new ChessMove(fromPos, toPos, ChessPiece.PieceType.KNIGHT));
-        promos.add(new ChessMove(fromPos, toPos, ChessPiece.PieceType.ROOK));
-        return promos;
-    }
-}
\ No newline at end of file
+}
@@ -2,21 +2,15 @@ package chess.piecemovescalculator;
 
 import chess.*;
 
-import java.util.ArrayList;
-import java.util.Collection;
-
 public class QueenMoves extends MovesCalculator {
-    public Collection<ChessMove> allPossibleMoves(ChessBoard board, ChessPosition startPos) {
-        Collection<ChessMove> queenMoves = new ArrayList<>();
-
-        int[][] directions = {
-                {1, 0}, {-1, 0}, {0, 1}, {0, -1},
-                {1, 1}, {1, -1}, {-1, 1}, {-1, -1}
-        };
 
-        for (int[] dir : directions) {
-            queenMoves.addAll(gatherMovesInDirection(board, startPos, dir[0], dir[1], true));
+    @Override
+    public void generateMoves(ChessBoard board, int from, long targetMask, MoveList moves) {
+        ChessPiece self = board.getPiece(from);
+        if (self == null) {
+            return;
         }
-        return queenMoves;
+        long attacks = AttackTables.queenAttacks(from, board.getOccupiedBitboard());
+        addTargets(board, from, attacks & notOwnPieces(board, self) & targetMask, moves);
     }
-}
\ No newline at end of file
+}
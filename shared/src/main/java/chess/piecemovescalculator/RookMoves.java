@@ -2,25 +2,15 @@ package chess.piecemovescalculator;
 
 import chess.*;
 
-import java.util.ArrayList;
-import java.util.Collection;
-
 public class RookMoves extends MovesCalculator {
-    @Override
-    public Collection<ChessMove> allPossibleMoves(ChessBoard board, ChessPosition startPos) {
-        Collection<ChessMove> rookMoves = new ArrayList<>();
-
-        int[][] lines = {
-                {1, 0},
-                {-1, 0},
-                {0, 1},
-                {0, -1}
 
-        };
-
-        for (int[] line : lines) {
-            rookMoves.addAll(gatherMovesInDirection(board, startPos, line[0], line[1], true));
+    @Override
+    public void generateMoves(ChessBoard board, int from, long targetMask, MoveList moves) {
+        ChessPiece self = board.getPiece(from);
+        if (self == null) {
+            return;
         }
-        return rookMoves;
+        long attacks = AttackTables.rookAttacks(from, board.getOccupiedBitboard());
+        addTargets(board, from, attacks & notOwnPieces(board, self) & targetMask, moves);
     }
-}
\ No newline at end of file
+}
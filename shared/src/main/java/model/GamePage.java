@@ -0,0 +1,15 @@
+package model;
+
+import java.util.List;
+
+/**
+ * One page of the game list
+ *
+ * @param nextCursor value to pass as the cursor for the following page, or null on the last page
+ */
+public record GamePage(
+        List<GameSummary> games,
+        Integer nextCursor
+) {
+
+}
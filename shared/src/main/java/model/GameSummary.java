@@ -0,0 +1,16 @@
+package model;
+
+/**
+ * The lobby view of a game: who is playing and what it is called, without the board
+ */
+public record GameSummary(
+        int gameID,
+        String whiteUsername,
+        String blackUsername,
+        String gameName
+) {
+
+    public static GameSummary of(GameData game) {
+        return new GameSummary(game.gameID(), game.whiteUsername(), game.blackUsername(), game.gameName());
+    }
+}
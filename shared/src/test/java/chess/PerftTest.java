@@ -0,0 +1,93 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Leaf-node counts for standard perft positions (published on the Chess Programming
+ * Wiki).
+ */
+public class PerftTest {
+
+    private static final String POSITION_3 = "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1";
+    private static final String KIWIPETE = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+    private static final String POSITION_4 = "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1";
+    private static final String POSITION_5 = "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8";
+
+    @Test
+    @DisplayName("Start position - Positive (depths 1-5)")
+    public void startPosition() {
+        ChessGame game = new ChessGame();
+        Assertions.assertEquals(20, Perft.perft(game, 1));
+        Assertions.assertEquals(400, Perft.perft(game, 2));
+        Assertions.assertEquals(8_902, Perft.perft(game, 3));
+        Assertions.assertEquals(197_281, Perft.perft(game, 4));
+        Assertions.assertEquals(4_865_609, Perft.perft(game, 5));
+    }
+
+    @Test
+    @DisplayName("Position 3 - Positive (depths 1-5)")
+    public void position3() {
+        ChessGame game = ChessGame.fromFen(POSITION_3);
+        Assertions.assertEquals(14, Perft.perft(game, 1));
+        Assertions.assertEquals(191, Perft.perft(game, 2));
+        Assertions.assertEquals(2_812, Perft.perft(game, 3));
+        Assertions.assertEquals(43_238, Perft.perft(game, 4));
+        Assertions.assertEquals(674_624, Perft.perft(game, 5));
+    }
+
+    @Test
+    @DisplayName("Kiwipete - Positive (depths 1-3)")
+    public void kiwipete() {
+        ChessGame game = ChessGame.fromFen(KIWIPETE);
+        Assertions.assertEquals(48, Perft.perft(game, 1));
+        Assertions.assertEquals(2_039, Perft.perft(game, 2));
+        Assertions.assertEquals(97_862, Perft.perft(game, 3));
+    }
+
+    @Test
+    @DisplayName("Position 4 - Positive (depths 1-3)")
+    public void position4() {
+        ChessGame game = ChessGame.fromFen(POSITION_4);
+        Assertions.assertEquals(6, Perft.perft(game, 1));
+        Assertions.assertEquals(264, Perft.perft(game, 2));
+        Assertions.assertEquals(9_467, Perft.perft(game, 3));
+    }
+
+    @Test
+    @DisplayName("Position 5 - Positive (depths 1-3)")
+    public void position5() {
+        ChessGame game = ChessGame.fromFen(POSITION_5);
+        Assertions.assertEquals(44, Perft.perft(game, 1));
+        Assertions.assertEquals(1_486, Perft.perft(game, 2));
+        Assertions.assertEquals(62_379, Perft.perft(game, 3));
+    }
+
+    @Test
+    @DisplayName("Parallel - Positive (matches serial)")
+    public void parallelMatchesSerial() {
+        ChessGame game = new ChessGame();
+        Assertions.assertEquals(Perft.perft(game, 4), Perft.perftParallel(game, 4));
+    }
+
+    @Test
+    @DisplayName("Divide - Positive (sums to perft)")
+    public void divideSumsToPerft() {
+        ChessGame game = new ChessGame();
+        var divided = Perft.divide(game, 3);
+        Assertions.assertEquals(20, divided.size());
+        Assertions.assertEquals(8_902, divided.values().stream().mapToLong(Long::longValue).sum());
+    }
+
+    @Test
+    @DisplayName("Make/unmake - Positive (game restored)")
+    public void gameRestoredAfterSearch() {
+        ChessGame game = ChessGame.fromFen(KIWIPETE);
+        ChessGame before = new ChessGame(game);
+        Perft.perft(game, 3);
+        Assertions.assertEquals(before, game);
+        Assertions.assertEquals(before.getPositionKey(), game.getPositionKey());
+        Assertions.assertEquals(before.getCastlingRights(), game.getCastlingRights());
+    }
+}